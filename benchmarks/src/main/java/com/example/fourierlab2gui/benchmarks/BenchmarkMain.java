@@ -0,0 +1,26 @@
+package com.example.fourierlab2gui.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkMain {
+    // Запуск бенчмарков с параметрами командной строки JMH (например, ".*FFT2D.*" -p size=1024x1024);
+    // профилировщик GC добавляется всегда, чтобы вместе с ops/s выводилась скорость выделения памяти
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().stream().noneMatch(p -> p.getKlass().equals(GCProfiler.class.getName())
+                || p.getKlass().equals("gc"))) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.fourierlab2gui.benchmarks;
+
+import com.example.fourierlab2gui.BatchFFT2D;
+import com.example.fourierlab2gui.FFT2D;
+import com.example.fourierlab2gui.FFTWPlanCache;
+import com.example.fourierlab2gui.FFTWPlanner;
+import com.example.fourierlab2gui.ImagePlane;
+import com.example.fourierlab2gui.TransformData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.bytedeco.fftw.global.fftw3.fftw_forget_wisdom;
+import static org.bytedeco.fftw.global.fftw3.fftwf_forget_wisdom;
+
+// Преобразования FFTW: прямое и обратное с готовым планом (warm) и с построением плана (cold),
+// извлечение амплитудного спектра и результата обратного преобразования. Режим планирования - параметр:
+// warm показывает, что дает более дорогой план, cold - сколько стоит его построение (PATIENT на больших
+// размерах планируется минутами, поэтому его обычно запускают с -p size=...)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g", "--add-modules=jdk.incubator.vector"})
+public class FFT2DBenchmark {
+    // Квадратные, прямоугольные и простые размеры (ширинаxвысота)
+    @Param({"256x256", "1024x1024", "4096x4096", "8192x8192", "1024x768", "4096x2048", "257x257", "1021x1021",
+            "2039x1531"})
+    public String size;
+
+    // Режим вещественного преобразования (r2c/c2r) или комплексного
+    @Param({"false", "true"})
+    public boolean realToComplex;
+
+    @Param({"ESTIMATE", "MEASURE", "PATIENT"})
+    public FFTWPlanner.Mode planning;
+
+    private int width;
+    private int height;
+    private ImagePlane image;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Без файла wisdom: накопленные на машине планы не загружаются и не сохраняются
+        FFTWPlanner.setWisdomFile(null);
+        FFTWPlanner.setMode(planning);
+        width = Pixels.width(size);
+        height = Pixels.height(size);
+        image = Pixels.randomPlane(width, height);
+    }
+
+    // Прямое преобразование с планом из кэша (включая копирование изображения в буфер FFTW)
+    @Benchmark
+    public void forwardWarm(Transforms transforms, Pixels pixels) {
+        transforms.fft.setImageData(image);
+        transforms.fft.forwardTransform();
+        pixels.add(width, height);
+    }
+
+    // Прямое преобразование с построением плана: кэш планов и wisdom очищаются перед каждым вызовом
+    @Benchmark
+    public void forwardCold(ColdPlans plans, Pixels pixels) {
+        FFT2D cold = new FFT2D(height, width, realToComplex);
+        try {
+            cold.setImageData(image);
+            cold.forwardTransform();
+        } finally {
+            cold.cleanup();
+        }
+        pixels.add(width, height);
+    }
+
+    // Обратное преобразование с планом из кэша (без извлечения результата)
+    @Benchmark
+    public void inverseWarm(Transforms transforms, Pixels pixels) {
+        transforms.batch.inverseTransform();
+        pixels.add(width, height);
+    }
+
+    // Обратное преобразование вместе с нормализацией результата
+    @Benchmark
+    public TransformData inverseWithExtraction(Transforms transforms, Pixels pixels) {
+        pixels.add(width, height);
+        return transforms.fft.getInverseTransform();
+    }
+
+    // Извлечение логарифмического амплитудного спектра
+    @Benchmark
+    public TransformData getSpectrum(Transforms transforms, Pixels pixels) {
+        pixels.add(width, height);
+        return transforms.fft.getSpectrum();
+    }
+
+    // Извлечение амплитуд прямого преобразования
+    @Benchmark
+    public TransformData getForwardTransform(Transforms transforms, Pixels pixels) {
+        pixels.add(width, height);
+        return transforms.fft.getForwardTransform();
+    }
+
+    // Извлечение нормализованного результата уже выполненного обратного преобразования
+    @Benchmark
+    public TransformData getInverseTransform(Transforms transforms, Pixels pixels) {
+        pixels.add(width, height);
+        return transforms.batch.getInverseTransform(0);
+    }
+
+    // Преобразования с готовыми планами. Отдельное состояние, чтобы холодный бенчмарк их не создавал:
+    // планы, на которые есть ссылки, FFTWPlanCache.clear() не уничтожает, и cold получал бы план из кэша
+    @State(Scope.Benchmark)
+    public static class Transforms {
+        private FFT2D fft;
+        // Одна плоскость без выполнения обратного преобразования при извлечении результата
+        private BatchFFT2D batch;
+
+        @Setup(Level.Trial)
+        public void setup(FFT2DBenchmark benchmark) {
+            fft = new FFT2D(benchmark.height, benchmark.width, benchmark.realToComplex);
+            fft.setImageData(benchmark.image);
+            fft.forwardTransform();
+            batch = new BatchFFT2D(1, benchmark.height, benchmark.width, benchmark.realToComplex);
+            batch.setImageData(0, benchmark.image);
+            batch.forwardTransform();
+            batch.inverseTransform();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fft.cleanup();
+            batch.cleanup();
+        }
+    }
+
+    // Очистка кэша планов и wisdom в памяти процесса перед каждым вызовом холодного бенчмарка
+    // (иначе FFTW восстанавливает план из wisdom, накопленной предыдущими вызовами)
+    @State(Scope.Thread)
+    public static class ColdPlans {
+        @Setup(Level.Invocation)
+        public void clear() {
+            FFTWPlanCache.clear();
+            fftw_forget_wisdom();
+            fftwf_forget_wisdom();
+        }
+    }
+}
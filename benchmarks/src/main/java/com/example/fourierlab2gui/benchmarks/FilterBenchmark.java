@@ -0,0 +1,120 @@
+package com.example.fourierlab2gui.benchmarks;
+
+import com.example.fourierlab2gui.ButterworthFilter;
+import com.example.fourierlab2gui.Filter;
+import com.example.fourierlab2gui.FilterMaskUtils;
+import com.example.fourierlab2gui.GaussianLowPassFilter;
+import com.example.fourierlab2gui.HighPassFilter;
+import com.example.fourierlab2gui.IdealFilter;
+import com.example.fourierlab2gui.ImagePlane;
+import com.example.fourierlab2gui.TransferFunction;
+import javafx.scene.image.WritableImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Фильтры: умножение спектра на передаточную функцию, вычисление функции без кэша и маски FilterMaskUtils
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FilterBenchmark {
+    @Param({"256x256", "1024x1024", "4096x4096", "8192x8192", "1024x768", "4096x2048", "257x257", "1021x1021",
+            "2039x1531"})
+    public String size;
+
+    @Param({"ideal-highpass", "ideal-lowpass", "ramp", "gaussian", "butterworth"})
+    public String filter;
+
+    // Частота среза
+    @Param({"30"})
+    public double D0;
+
+    private int width;
+    private int height;
+    private Filter instance;
+    private ImagePlane re;
+    private ImagePlane im;
+    private ImagePlane sourceRe;
+    private ImagePlane sourceIm;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        width = Pixels.width(size);
+        height = Pixels.height(size);
+        switch (filter) {
+            case "ideal-highpass":
+                instance = new IdealFilter(D0, true);
+                break;
+            case "ideal-lowpass":
+                instance = new IdealFilter(D0, false);
+                break;
+            case "ramp":
+                instance = new HighPassFilter(D0);
+                break;
+            case "gaussian":
+                instance = new GaussianLowPassFilter(D0);
+                break;
+            case "butterworth":
+                instance = new ButterworthFilter(D0, 2, false);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown filter: " + filter);
+        }
+        sourceRe = Pixels.randomPlane(width, height);
+        sourceIm = Pixels.randomPlane(width, height);
+        re = sourceRe.copy();
+        im = sourceIm.copy();
+    }
+
+    // Восстановление спектра перед каждым вызовом: повторное умножение на месте быстро
+    // уводит значения в денормализованные числа и искажает измерение
+    @Setup(Level.Invocation)
+    public void restore() {
+        System.arraycopy(sourceRe.getData(), 0, re.getData(), 0, re.getData().length);
+        System.arraycopy(sourceIm.getData(), 0, im.getData(), 0, im.getData().length);
+    }
+
+    // Применение фильтра к комплексному спектру с передаточной функцией из кэша
+    @Benchmark
+    public ImagePlane apply(Pixels pixels) {
+        instance.apply(re, im);
+        pixels.add(width, height);
+        return re;
+    }
+
+    // Вычисление передаточной функции без кэша
+    @Benchmark
+    public TransferFunction transferFunctionCold(Pixels pixels) {
+        TransferFunction.clearCache();
+        pixels.add(width, height);
+        return instance.getTransferFunction(width, height);
+    }
+
+    // Маска идеального фильтра в виде массива столбцов
+    @Benchmark
+    public double[][] createFilterMask(Pixels pixels) {
+        pixels.add(width, height);
+        return FilterMaskUtils.createFilterMask(width, height, D0, filter.equals("ideal-highpass"));
+    }
+
+    // Изображение маски для предварительного просмотра
+    @Benchmark
+    public WritableImage createImageFromMask(Pixels pixels) {
+        pixels.add(width, height);
+        return FilterMaskUtils.createImageFromMask(instance.getTransferFunction(width, height));
+    }
+}
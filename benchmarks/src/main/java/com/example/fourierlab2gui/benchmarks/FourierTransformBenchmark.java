@@ -0,0 +1,59 @@
+package com.example.fourierlab2gui.benchmarks;
+
+import com.example.fourierlab2gui.FourierTransform;
+import com.example.fourierlab2gui.ImagePlane;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Преобразование Фурье на Java (FourierTransform): прямое и обратное для плоскостей
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FourierTransformBenchmark {
+    @Param({"256x256", "1024x1024", "4096x4096", "8192x8192", "1024x768", "4096x2048", "257x257", "1021x1021",
+            "2039x1531"})
+    public String size;
+
+    private int width;
+    private int height;
+    private final FourierTransform fourierTransform = new FourierTransform();
+    private ImagePlane re;
+    private ImagePlane im;
+    private ImagePlane[] spectrum;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        width = Pixels.width(size);
+        height = Pixels.height(size);
+        re = Pixels.randomPlane(width, height);
+        im = new ImagePlane(width, height);
+        spectrum = fourierTransform.twoDimensionalFourierTransform(re, im);
+    }
+
+    @Benchmark
+    public ImagePlane[] forward(Pixels pixels) {
+        pixels.add(width, height);
+        return fourierTransform.twoDimensionalFourierTransform(re, im);
+    }
+
+    @Benchmark
+    public ImagePlane[] inverse(Pixels pixels) {
+        pixels.add(width, height);
+        return fourierTransform.inverseTwoDimensionalFourierTransform(spectrum[0], spectrum[1]);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.fourierlab2gui.benchmarks;
+
+import com.example.fourierlab2gui.ImagePlane;
+import com.example.fourierlab2gui.ImageProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+// Чтение цветовых компонент изображения и сохранение результатов (ImageProcessor)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g", "-Djava.awt.headless=true"})
+public class ImageIOBenchmark {
+    @Param({"256x256", "1024x1024", "4096x4096", "8192x8192", "1024x768", "4096x2048", "257x257", "1021x1021",
+            "2039x1531"})
+    public String size;
+
+    private int width;
+    private int height;
+    private final ImageProcessor imageProcessor = new ImageProcessor();
+    private BufferedImage image;
+    // Массивы компонент [height][width] для каждого канала
+    private int[][][] componentArrays;
+    private ImagePlane[] planes;
+    private File directory;
+    private String fileName;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        width = Pixels.width(size);
+        height = Pixels.height(size);
+        image = Pixels.randomImage(width, height);
+        int[][] components = imageProcessor.getColorComponents(image);
+        componentArrays = new int[3][][];
+        for (int i = 0; i < 3; i++) {
+            componentArrays[i] = imageProcessor.getColorComponentArray(components, i);
+        }
+        planes = imageProcessor.getColorComponentPlanes(image);
+        directory = Files.createTempDirectory("fourier-bench").toFile();
+        fileName = new File(directory, "image").getPath();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public int[][] getColorComponents(Pixels pixels) {
+        pixels.add(width, height);
+        return imageProcessor.getColorComponents(image);
+    }
+
+    @Benchmark
+    public ImagePlane[] getColorComponentPlanes(Pixels pixels) {
+        pixels.add(width, height);
+        return imageProcessor.getColorComponentPlanes(image);
+    }
+
+    // Сохранение одного RGB-изображения из массивов компонент
+    @Benchmark
+    public String saveColorComponentArrayAsImage(Pixels pixels) throws IOException {
+        pixels.add(width, height);
+        return imageProcessor.saveColorComponentArrayAsImage(componentArrays[0], componentArrays[1],
+                componentArrays[2], fileName + "_array.jpg", width, height);
+    }
+
+    // Сохранение одного RGB-изображения из плоскостей
+    @Benchmark
+    public String saveColorComponentPlanesAsImage(Pixels pixels) throws IOException {
+        pixels.add(width, height);
+        return imageProcessor.saveColorComponentPlanesAsImage(planes[0], planes[1], planes[2],
+                fileName + "_planes.jpg");
+    }
+
+    // Сохранение набора изображений результата (по каналам и RGB), как после обработки в GUI
+    @Benchmark
+    public void saveAfterFourierImages(Pixels pixels) throws IOException {
+        imageProcessor.saveAfterFourierImages(planes[0], planes[1], planes[2], fileName);
+        pixels.add(width, height);
+    }
+}
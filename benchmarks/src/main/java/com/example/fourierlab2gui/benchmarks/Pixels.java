@@ -0,0 +1,62 @@
+package com.example.fourierlab2gui.benchmarks;
+
+import com.example.fourierlab2gui.ImagePlane;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+// Счетчик обработанных мегапикселей: JMH выводит его как скорость (megapixels, MP/s) рядом с ops/s
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Pixels {
+    public double megapixels;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        megapixels = 0;
+    }
+
+    public void add(int width, int height) {
+        megapixels += (double) width * height / 1e6;
+    }
+
+    // Ширина из параметра размера вида "ширинаxвысота"
+    static int width(String size) {
+        return Integer.parseInt(size.substring(0, size.indexOf('x')));
+    }
+
+    // Высота из параметра размера вида "ширинаxвысота"
+    static int height(String size) {
+        return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+    }
+
+    // Плоскость со случайными значениями яркости 0..255 (одинаковыми для всех запусков)
+    static ImagePlane randomPlane(int width, int height) {
+        Random random = new Random(width * 31L + height);
+        ImagePlane plane = new ImagePlane(width, height);
+        double[] data = plane.getData();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextInt(256);
+        }
+        return plane;
+    }
+
+    // Случайное цветное изображение TYPE_INT_RGB
+    static BufferedImage randomImage(int width, int height) {
+        Random random = new Random(width * 31L + height);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = random.nextInt(1 << 24);
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.fourierlab2gui.benchmarks;
+
+import com.example.fourierlab2gui.BatchFFT2D;
+import com.example.fourierlab2gui.FFTWPlanCache;
+import com.example.fourierlab2gui.Filter;
+import com.example.fourierlab2gui.GaussianLowPassFilter;
+import com.example.fourierlab2gui.ImagePlane;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Точность FFTW: фильтрация трех каналов (прямое r2c, фильтр Гаусса, обратное c2r) в double и float;
+// рядом со скоростью выводится ошибка результата относительно double в уровнях яркости 0..255
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g", "--add-modules=jdk.incubator.vector"})
+public class PrecisionBenchmark {
+    @Param({"1024x1024", "4096x4096", "8192x8192", "4096x2048", "2039x1531"})
+    public String size;
+
+    @Param({"DOUBLE", "SINGLE"})
+    public FFTWPlanCache.Precision precision;
+
+    private int width;
+    private int height;
+    private ImagePlane[] planes;
+    private Filter filter;
+    private BatchFFT2D batch;
+    // Ошибка относительно double: наибольшая и среднеквадратичная (в уровнях яркости)
+    private double maxError;
+    private double rmsError;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        width = Pixels.width(size);
+        height = Pixels.height(size);
+        planes = new ImagePlane[3];
+        // Разные данные для каждого канала: строки более широкой случайной плоскости
+        for (int plane = 0; plane < planes.length; plane++) {
+            ImagePlane source = Pixels.randomPlane(width + plane, height);
+            planes[plane] = new ImagePlane(width, height, source.getStride(), source.getData());
+        }
+        filter = new GaussianLowPassFilter(30);
+        batch = new BatchFFT2D(planes.length, height, width, true, precision);
+
+        // Эталон в double и результат в выбранной точности для одних и тех же данных
+        BatchFFT2D reference = new BatchFFT2D(planes.length, height, width, true);
+        try {
+            filter(reference);
+            filter(batch);
+            double sum = 0;
+            for (int plane = 0; plane < planes.length; plane++) {
+                double[] expected = reference.getImagePlane(plane).getData();
+                double[] actual = batch.getImagePlane(plane).getData();
+                for (int i = 0; i < expected.length; i++) {
+                    double error = Math.abs(actual[i] - expected[i]);
+                    maxError = Math.max(maxError, error);
+                    sum += error * error;
+                }
+            }
+            rmsError = Math.sqrt(sum / ((double) planes.length * width * height));
+            System.out.printf("%nОшибка %s относительно DOUBLE: max %.3g, rms %.3g уровней яркости%n", precision,
+                    maxError, rmsError);
+        } finally {
+            reference.cleanup();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        batch.cleanup();
+    }
+
+    // Полный цикл фильтрации с копированием каналов в буфер FFTW
+    @Benchmark
+    public void filterRoundTrip(Pixels pixels, Accuracy accuracy) {
+        filter(batch);
+        pixels.add(width, height);
+        accuracy.set(maxError, rmsError);
+    }
+
+    private void filter(BatchFFT2D fft) {
+        for (int plane = 0; plane < planes.length; plane++) {
+            fft.setImageData(plane, planes[plane]);
+        }
+        fft.forwardTransform();
+        fft.applyFilter(filter);
+        fft.inverseTransform();
+    }
+
+    // Ошибка относительно double, выводимая JMH рядом с результатом
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Accuracy {
+        public double maxLevels;
+        public double rmsLevels;
+
+        private void set(double max, double rms) {
+            maxLevels = max;
+            rmsLevels = rms;
+        }
+    }
+}
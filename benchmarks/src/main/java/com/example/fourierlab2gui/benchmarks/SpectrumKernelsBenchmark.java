@@ -0,0 +1,75 @@
+package com.example.fourierlab2gui.benchmarks;
+
+import com.example.fourierlab2gui.SpectrumKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Ядра над чередующимися парами re, im (строка спектра FFTW): скалярные циклы и Vector API.
+// Каждый набор параметров выполняется в отдельном процессе, поэтому свойство, выбирающее ядра,
+// устанавливается до первого обращения к SpectrumKernels
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g", "--add-modules=jdk.incubator.vector"})
+public class SpectrumKernelsBenchmark {
+    // Количество комплексных значений в строке (ширина спектра r2c для изображений 1024 и 8192)
+    @Param({"513", "4097"})
+    public int count;
+
+    // Векторные ядра (true) или скалярные циклы (false)
+    @Param({"true", "false"})
+    public boolean vector;
+
+    private double[] row;
+    private double[] destination;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty(SpectrumKernels.VECTOR_PROPERTY, Boolean.toString(vector));
+        if (SpectrumKernels.isVectorized() != vector) {
+            throw new IllegalStateException("Vector kernels are not available: run on Java 17+ with the "
+                    + "multi-release jar");
+        }
+        Random random = new Random(count);
+        row = new double[2 * count];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = random.nextGaussian();
+        }
+        destination = new double[count];
+    }
+
+    @Benchmark
+    public double[] magnitude(Pixels pixels) {
+        SpectrumKernels.magnitude(row, 0, destination, 0, count);
+        pixels.add(count, 1);
+        return destination;
+    }
+
+    @Benchmark
+    public double[] power(Pixels pixels) {
+        SpectrumKernels.power(row, 0, destination, 0, count);
+        pixels.add(count, 1);
+        return destination;
+    }
+
+    @Benchmark
+    public double energy(Pixels pixels) {
+        pixels.add(count, 1);
+        return SpectrumKernels.energy(row, 0, count);
+    }
+}
@@ -0,0 +1,786 @@
+package com.example.fourierlab2gui;
+
+import org.bytedeco.javacpp.*;
+
+import java.awt.image.BufferedImage;
+import java.nio.Buffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.stream.IntStream;
+
+import static org.bytedeco.fftw.global.fftw3.*;
+
+public class BatchFFT2D {
+    // Количество плоскостей (каналов или изображений) в пакете
+    private final int count;
+    // Высота и ширина каждой плоскости
+    private final int height;
+    private final int width;
+    // Режим вещественного преобразования (r2c/c2r) с хранением половины спектра
+    private final boolean realToComplex;
+    // Точность буферов и планов FFTW
+    private final FFTWPlanCache.Precision precision;
+    // Ширина хранимого спектра: width для комплексного режима, width / 2 + 1 для r2c
+    private final int spectrumWidth;
+    // Расстояние между началами соседних плоскостей во входном и выходном буферах (в значениях)
+    private final int inDistance;
+    private final int outDistance;
+    // Общие входной и выходной буферы FFTW для всех плоскостей (DoublePointer или FloatPointer)
+    private final Pointer in;
+    private final Pointer out;
+    // Представления буферов FFTW для доступа без вызовов JNI на каждый элемент (DoubleBuffer или FloatBuffer)
+    private final Buffer inBuffer;
+    private final Buffer outBuffer;
+    // Копия половины спектра для c2r (обратное вещественное преобразование портит свой вход)
+    private Pointer inverseInput;
+    // Сохраненный исходный спектр всех плоскостей (для повторной фильтрации без прямого преобразования)
+    private Pointer savedSpectrum;
+    // Энергия отфильтрованного спектра каждой плоскости, накопленная при последнем applyFilter
+    private final double[] filteredEnergy;
+    // Планы прямого и обратного преобразования Фурье сразу для всех плоскостей из общего кэша
+    private FFTWPlanCache.Plan forwardPlan;
+    private FFTWPlanCache.Plan inversePlan;
+    // Количество потоков FFTW для одного пакетного преобразования
+    private int threads = 1;
+
+    // Представления плоскости для вывода в изображение (getRange, renderView)
+    public enum View {
+        // Амплитуды спектра
+        MAGNITUDE,
+        // Логарифм амплитуд спектра log(|X| + 1)
+        LOG_MAGNITUDE,
+        // Нормированный результат последнего обратного преобразования
+        REAL
+    }
+
+    // Конструктор класса
+    public BatchFFT2D(int count, int height, int width) {
+        this(count, height, width, false);
+    }
+
+    // Конструктор класса с выбором режима вещественного преобразования
+    public BatchFFT2D(int count, int height, int width, boolean realToComplex) {
+        this(count, height, width, realToComplex, FFTWPlanCache.Precision.DOUBLE);
+    }
+
+    // Конструктор класса с выбором режима и точности: в режиме SINGLE буферы и планы FFTW одинарной точности
+    // (fftwf), вдвое меньше памяти; интерфейс класса остается на double
+    public BatchFFT2D(int count, int height, int width, boolean realToComplex, FFTWPlanCache.Precision precision) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Invalid plane count: " + count);
+        }
+        this.count = count;
+        this.height = height;
+        this.width = width;
+        this.realToComplex = realToComplex;
+        this.precision = precision;
+        this.spectrumWidth = realToComplex ? width / 2 + 1 : width;
+        this.filteredEnergy = new double[count];
+        // Представления буферов индексируются типом int
+        if ((long) count * height * Math.max(width, spectrumWidth) * 2 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Images too large for BatchFFT2D: " + count + " x "
+                    + width + "x" + height);
+        }
+        // Плоскости лежат в одном выровненном буфере друг за другом:
+        // в режиме r2c вход вещественный, а выход хранит только половину эрмитова спектра
+        this.inDistance = realToComplex ? height * width : height * width * 2;
+        this.outDistance = height * spectrumWidth * 2;
+        this.in = FFTWPlanCache.allocate(precision, (long) count * inDistance);
+        this.out = FFTWPlanCache.allocate(precision, (long) count * outDistance);
+        this.inBuffer = in.asBuffer();
+        this.outBuffer = out.asBuffer();
+    }
+
+    // Конструктор класса с выбором режима и количества потоков FFTW
+    public BatchFFT2D(int count, int height, int width, boolean realToComplex, int threads) {
+        this(count, height, width, realToComplex, threads, FFTWPlanCache.Precision.DOUBLE);
+    }
+
+    // Конструктор класса с выбором режима, количества потоков FFTW и точности
+    public BatchFFT2D(int count, int height, int width, boolean realToComplex, int threads,
+                      FFTWPlanCache.Precision precision) {
+        this(count, height, width, realToComplex, precision);
+        this.threads = Math.max(1, threads);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    // Проверка режима вещественного преобразования
+    public boolean isRealToComplex() {
+        return realToComplex;
+    }
+
+    public FFTWPlanCache.Precision getPrecision() {
+        return precision;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    // Установка количества потоков FFTW (планы будут получены заново при следующем преобразовании)
+    public void setThreads(int threads) {
+        threads = Math.max(1, threads);
+        if (threads != this.threads) {
+            this.threads = threads;
+            releasePlans();
+        }
+    }
+
+    // Ширина хранимого спектра (width / 2 + 1 в режиме r2c)
+    public int getSpectrumWidth() {
+        return spectrumWidth;
+    }
+
+    // Метод для установки данных изображения плоскости из массива строк [height][width]
+    public void setImageData(int plane, double[][] imageData) {
+        // Заполняем строку целиком и копируем ее в буфер FFTW одной операцией
+        double[] row = new double[inputRowLength()];
+        for (int i = 0; i < height; i++) {
+            fillInputRow(imageData[i], 0, row);
+            writeRow(inBuffer, inputRowOffset(plane, i), row);
+        }
+    }
+
+    // Метод для установки данных изображения плоскости из плоского массива (построчно, height * width)
+    public void setImageData(int plane, double[] imageData) {
+        setImageData(plane, new ImagePlane(width, height, width, imageData));
+    }
+
+    // Метод для установки данных изображения плоскости (строки копируются в буфер FFTW целиком;
+    // в режиме r2c - напрямую из плоскости, без промежуточной строки)
+    public void setImageData(int plane, ImagePlane imageData) {
+        double[] data = imageData.getData();
+        int stride = imageData.getStride();
+        if (realToComplex) {
+            for (int i = 0; i < height; i++) {
+                writeRow(inBuffer, inputRowOffset(plane, i), data, i * stride, width);
+            }
+            return;
+        }
+        double[] row = new double[inputRowLength()];
+        for (int i = 0; i < height; i++) {
+            fillInputRow(data, i * stride, row);
+            writeRow(inBuffer, inputRowOffset(plane, i), row);
+        }
+    }
+
+    // Декодирование изображения прямо во входной буфер FFTW: строка пикселей читается из растра и ее
+    // компоненты channels[plane] (0 - R, 1 - G, 2 - B) записываются в строки плоскостей, без промежуточных
+    // массивов размером с изображение (строки обрабатываются параллельно)
+    public void setImageData(BufferedImage image, int[] channels) {
+        checkImage(image, channels);
+        IntStream.range(0, height).parallel().forEach(i -> {
+            int[] pixels = new int[width];
+            double[] values = new double[width];
+            double[] row = realToComplex ? values : new double[inputRowLength()];
+            RasterAccess.getRGBRow(image, i, pixels);
+            for (int plane = 0; plane < count; plane++) {
+                int shift = 16 - 8 * channels[plane];
+                for (int j = 0; j < width; j++) {
+                    values[j] = (pixels[j] >> shift) & 0xFF;
+                }
+                if (!realToComplex) {
+                    fillInputRow(values, 0, row);
+                }
+                writeRow(inBuffer, inputRowOffset(plane, i), row);
+            }
+        });
+    }
+
+    // Результат последнего обратного преобразования прямо из буфера FFTW в RGB-изображение:
+    // плоскость plane попадает в компоненту channels[plane], остальные компоненты нулевые; значения
+    // нормализуются по плоскости в 0..255 (normalize) или обрезаются до 0..255
+    public BufferedImage getImage(int[] channels, boolean normalize) {
+        checkImage(null, channels);
+        // Значения пикселей нормируются как в getImagePlane; при нормализации по плоскости
+        // вычисляются их минимум и максимум (те же операции, что в getInverseTransform)
+        double pixelScale = 1 / ((double) height * width);
+        double[] minimums = new double[count];
+        double[] ranges = new double[count];
+        if (normalize) {
+            double[] row = new double[inputRowLength()];
+            int step = realToComplex ? 1 : 2;
+            for (int plane = 0; plane < count; plane++) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = 0; i < height; i++) {
+                    readRow(inBuffer, inputRowOffset(plane, i), row);
+                    for (int j = 0; j < width; j++) {
+                        double value = row[j * step] * pixelScale;
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                }
+                minimums[plane] = min;
+                ranges[plane] = max - min;
+            }
+        }
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        IntStream.range(0, height).parallel().forEach(i -> {
+            int[] pixels = new int[width];
+            double[] row = new double[inputRowLength()];
+            int step = realToComplex ? 1 : 2;
+            for (int plane = 0; plane < count; plane++) {
+                int shift = 16 - 8 * channels[plane];
+                double min = minimums[plane];
+                double range = ranges[plane];
+                readRow(inBuffer, inputRowOffset(plane, i), row);
+                for (int j = 0; j < width; j++) {
+                    double value = row[j * step] * pixelScale;
+                    value = normalize ? (value - min) / range * 255 : value;
+                    pixels[j] |= ImageProcessor.toByte(value) << shift;
+                }
+            }
+            RasterAccess.setRGBRow(image, i, pixels);
+        });
+        return image;
+    }
+
+    // Сумма квадратов значений входной плоскости (до прямого преобразования - энергия исходного изображения)
+    public double getInputEnergy(int plane) {
+        double energy = 0;
+        double[] row = new double[inputRowLength()];
+        for (int i = 0; i < height; i++) {
+            readRow(inBuffer, inputRowOffset(plane, i), row);
+            for (double value : row) {
+                energy += value * value;
+            }
+        }
+        return energy;
+    }
+
+    // Энергия изображения по текущему спектру плоскости (равенство Парсеваля): sum |X|^2 / (height * width)
+    // по всему спектру без обратного преобразования; сопоставима с getInputEnergy до прямого преобразования
+    public double getSpectrumEnergy(int plane) {
+        double energy = 0;
+        double[] row = new double[spectrumWidth * 2];
+        for (int i = 0; i < height; i++) {
+            readRow(outBuffer, spectrumRowOffset(plane, i), row);
+            energy += rowEnergy(row);
+        }
+        return energy / ((double) height * width);
+    }
+
+    // Энергия отфильтрованного изображения плоскости, посчитанная по спектру во время последнего applyFilter
+    // (как getSpectrumEnergy, но без отдельного прохода); доступна до обратного преобразования
+    public double getFilteredEnergy(int plane) {
+        checkPlane(plane);
+        return filteredEnergy[plane];
+    }
+
+    // Метод для получения данных изображения плоскости
+    public double[][] getImageData(int plane) {
+        double[][] imageData = new double[height][width];
+        double[] row = new double[inputRowLength()];
+        for (int i = 0; i < height; i++) {
+            readRow(inBuffer, inputRowOffset(plane, i), row);
+            extractInputRow(row, imageData[i], 0);
+        }
+        return imageData;
+    }
+
+    // Метод для получения данных изображения плоскости в плоский массив (построчно, height * width)
+    public void getImageData(int plane, double[] imageData) {
+        double[] row = new double[inputRowLength()];
+        for (int i = 0; i < height; i++) {
+            readRow(inBuffer, inputRowOffset(plane, i), row);
+            extractInputRow(row, imageData, i * width);
+        }
+    }
+
+    // Метод для получения данных изображения плоскости в виде ImagePlane
+    public ImagePlane getImagePlane(int plane) {
+        ImagePlane imageData = new ImagePlane(width, height);
+        getImageData(plane, imageData.getData());
+        return imageData;
+    }
+
+    // Метод для выполнения прямого преобразования Фурье всех плоскостей одним планом
+    public void forwardTransform() {
+        // Получаем план прямого преобразования Фурье из кэша (один раз на объект)
+        if (forwardPlan == null) {
+            forwardPlan = realToComplex
+                    ? FFTWPlanCache.acquireRealBatch(precision, count, height, width, FFTW_FORWARD,
+                    FFTWPlanner.flags(), threads)
+                    : FFTWPlanCache.acquireBatch(precision, count, height, width, FFTW_FORWARD, false,
+                    FFTWPlanner.flags(), threads);
+        }
+        // Выполняем прямое преобразование Фурье
+        forwardPlan.execute(in, out);
+    }
+
+    // Метод для выполнения обратного преобразования Фурье всех плоскостей одним планом
+    // (результат читается через getInverseTransform, getImageData или getImagePlane)
+    public void inverseTransform() {
+        // Получаем план обратного преобразования Фурье из кэша (один раз на объект)
+        if (inversePlan == null) {
+            inversePlan = realToComplex
+                    ? FFTWPlanCache.acquireRealBatch(precision, count, height, width, FFTW_BACKWARD,
+                    FFTWPlanner.flags(), threads)
+                    : FFTWPlanCache.acquireBatch(precision, count, height, width, FFTW_BACKWARD, false,
+                    FFTWPlanner.flags(), threads);
+        }
+        if (realToComplex) {
+            // c2r разрушает свой вход, поэтому спектр сохраняем и преобразуем копию
+            if (inverseInput == null) {
+                inverseInput = FFTWPlanCache.allocate(precision, out.capacity());
+            }
+            Pointer.memcpy(inverseInput, out, out.capacity() * precision.getBytes());
+            inversePlan.execute(inverseInput, in);
+        } else {
+            inversePlan.execute(out, in);
+        }
+    }
+
+    // Метод для получения результата прямого преобразования Фурье плоскости
+    // (амплитуды в центрированном порядке: нулевая частота в (width / 2, height / 2))
+    public TransformData getForwardTransform(int plane) {
+        // Создаем плоскость для хранения результата преобразования
+        ImagePlane forwardTransform = new ImagePlane(width, height);
+        double[] magnitudes = forwardTransform.getData();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double[] row = new double[spectrumWidth * 2];
+        double[] mirrorRow = realToComplex ? new double[spectrumWidth * 2] : null;
+        double[] naturalRow = new double[width];
+        double[] range = {min, max};
+        // Проходим по всем строкам хранимого спектра
+        for (int i = 0; i < height; i++) {
+            // Вычисляем амплитуду для каждого пикселя строки
+            magnitudeRow(plane, i, row, mirrorRow, naturalRow);
+            // Обновляем минимальное и максимальное значения
+            SpectrumKernels.minMax(naturalRow, 0, width, range);
+            // Переносим строку на ее место в центрированном спектре
+            FFTShift.shiftRow(naturalRow, 0, magnitudes, FFTShift.shiftIndex(i, height) * width, width);
+        }
+        return new TransformData(forwardTransform, range[0], range[1]);
+    }
+
+    // Метод для получения спектра плоскости (в центрированном порядке)
+    public TransformData getSpectrum(int plane) {
+        // Создаем плоскость для хранения спектра
+        ImagePlane spectrum = new ImagePlane(width, height);
+        double[] magnitudes = spectrum.getData();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double[] row = new double[spectrumWidth * 2];
+        double[] mirrorRow = realToComplex ? new double[spectrumWidth * 2] : null;
+        double[] naturalRow = new double[width];
+        double[] range = {min, max};
+        // Проходим по всем строкам хранимого спектра
+        for (int i = 0; i < height; i++) {
+            magnitudeRow(plane, i, row, mirrorRow, naturalRow);
+            // Вычисляем логарифм магнитуды для каждого пикселя
+            SpectrumKernels.logPlusOne(naturalRow, 0, width);
+            // Обновляем минимальное и максимальное значения
+            SpectrumKernels.minMax(naturalRow, 0, width, range);
+            // Переносим строку на ее место в центрированном спектре
+            FFTShift.shiftRow(naturalRow, 0, magnitudes, FFTShift.shiftIndex(i, height) * width, width);
+        }
+        // Нормализуем спектр
+        normalize(spectrum, range[0], range[1]);
+        return new TransformData(spectrum, range[0], range[1]);
+    }
+
+    // Метод для получения нормализованного результата последнего обратного преобразования плоскости
+    public TransformData getInverseTransform(int plane) {
+        // Создаем плоскость для хранения результата обратного преобразования
+        ImagePlane inverseTransform = new ImagePlane(width, height);
+        double[] values = inverseTransform.getData();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double[] row = new double[inputRowLength()];
+        double[] range = {min, max};
+        // Проходим по всем строкам изображения
+        for (int i = 0; i < height; i++) {
+            // Получаем значения пикселей строки
+            int offset = i * width;
+            readRow(inBuffer, inputRowOffset(plane, i), row);
+            extractInputRow(row, values, offset);
+            // Обновляем минимальное и максимальное значения
+            SpectrumKernels.minMax(values, offset, width, range);
+        }
+        // Нормализуем обратное преобразование
+        normalize(inverseTransform, range[0], range[1]);
+        return new TransformData(inverseTransform, range[0], range[1]);
+    }
+
+    // Диапазон {min, max} представления view плоскости за один параллельный проход по строкам без сохранения
+    // значений: у каждой части потока строк свои буферы и частичные минимум и максимум, которые объединяются.
+    // Для спектров ищется диапазон квадратов амплитуд, а sqrt и log (монотонные) применяются только к его
+    // границам - результат тот же, что у getForwardTransform и getSpectrum
+    public double[] getRange(int plane, View view) {
+        checkPlane(plane);
+        double[] range = IntStream.range(0, height).parallel()
+                .collect(() -> new ViewRows(plane, view), ViewRows::accumulate, ViewRows::combine).range;
+        if (view != View.REAL) {
+            for (int k = 0; k < range.length; k++) {
+                range[k] = Math.sqrt(range[k]);
+                if (view == View.LOG_MAGNITUDE) {
+                    range[k] = Math.log(range[k] + 1);
+                }
+            }
+        }
+        return range;
+    }
+
+    // Запись представления view плоскости в компоненту channelShift пикселей ARGB (width * height, построчно):
+    // значения строк вычисляются заново и приводятся к 0..255 по диапазону range (как normalize * 255),
+    // спектры выводятся в центрированном порядке; остальные компоненты пикселей не изменяются.
+    // Буферы строк создаются один раз на часть параллельного потока строк, как в getRange
+    public void renderView(int plane, View view, double[] range, int[] pixels, int channelShift) {
+        checkPlane(plane);
+        if (pixels.length != width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " pixels, got " + pixels.length);
+        }
+        double scale = 255 / (range[1] - range[0]);
+        // Объединять нечего: каждая строка записывается в свои пиксели
+        IntStream.range(0, height).parallel().collect(() -> new ViewRows(plane, view),
+                (rows, i) -> rows.render(i, pixels, range[0], scale, channelShift), (rows, other) -> { });
+    }
+
+    // Метод для применения фильтра ко всем плоскостям (спектр умножается на передаточную функцию на месте)
+    public void applyFilter(Filter filter) {
+        applyFilter(0, count, filter.getTransferFunction(width, height));
+    }
+
+    // Применение готовой передаточной функции ко всем плоскостям (размер функции должен совпадать с размером
+    // плоскостей, например функция фрагмента при обработке по фрагментам)
+    public void applyFilter(TransferFunction function) {
+        if (function.getWidth() != width || function.getHeight() != height) {
+            throw new IllegalArgumentException("Transfer function " + function.getWidth() + "x"
+                    + function.getHeight() + " does not match " + width + "x" + height);
+        }
+        applyFilter(0, count, function);
+    }
+
+    // Метод для применения фильтра к одной плоскости
+    public void applyFilter(int plane, Filter filter) {
+        checkPlane(plane);
+        applyFilter(plane, plane + 1, filter.getTransferFunction(width, height));
+    }
+
+    // Метод для применения идеального фильтра высоких частот ко всем плоскостям
+    public void applyHighPassFilter(double D0) {
+        applyFilter(new IdealFilter(D0, true));
+    }
+
+    // Метод для применения идеального фильтра высоких частот к одной плоскости
+    public void applyHighPassFilter(int plane, double D0) {
+        applyFilter(plane, new IdealFilter(D0, true));
+    }
+
+    // Метод для применения фильтра Гаусса низких частот ко всем плоскостям
+    public void applyGaussianLowPassFilter(double cutoffFrequency) {
+        applyFilter(new GaussianLowPassFilter(cutoffFrequency));
+    }
+
+    // Метод для применения фильтра Гаусса низких частот к одной плоскости
+    public void applyGaussianLowPassFilter(int plane, double cutoffFrequency) {
+        applyFilter(plane, new GaussianLowPassFilter(cutoffFrequency));
+    }
+
+    // Копирование хранимого спектра плоскости в плоский массив (height * getSpectrumWidth() пар re, im)
+    public void getSpectrumData(int plane, double[] spectrumData) {
+        readRow(outBuffer, (long) plane * outDistance, spectrumData);
+    }
+
+    // Установка хранимого спектра плоскости из плоского массива (height * getSpectrumWidth() пар re, im)
+    public void setSpectrumData(int plane, double[] spectrumData) {
+        writeRow(outBuffer, (long) plane * outDistance, spectrumData);
+    }
+
+    // Установка вещественного спектра плоскости из массива строк [height][getSpectrumWidth()]
+    public void setSpectrum(int plane, double[][] newSpectrum) {
+        double[] row = new double[spectrumWidth * 2];
+        // Проходим по всем строкам хранимого спектра
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < spectrumWidth; j++) {
+                // Устанавливаем новые значения спектра для каждого пикселя
+                row[2 * j] = newSpectrum[i][j];
+                row[2 * j + 1] = 0;
+            }
+            writeRow(outBuffer, spectrumRowOffset(plane, i), row);
+        }
+    }
+
+    // Сохранение текущего спектра всех плоскостей одной операцией копирования в память FFTW
+    public void saveSpectrum() {
+        if (savedSpectrum == null) {
+            savedSpectrum = FFTWPlanCache.allocate(precision, out.capacity());
+        }
+        Pointer.memcpy(savedSpectrum, out, out.capacity() * precision.getBytes());
+    }
+
+    // Проверка наличия сохраненного спектра
+    public boolean hasSavedSpectrum() {
+        return savedSpectrum != null;
+    }
+
+    // Восстановление сохраненного спектра всех плоскостей (например, перед применением другого фильтра)
+    public void restoreSpectrum() {
+        if (savedSpectrum == null) {
+            throw new IllegalStateException("No saved spectrum to restore");
+        }
+        Pointer.memcpy(out, savedSpectrum, out.capacity() * precision.getBytes());
+    }
+
+    public void cleanup() {
+        releasePlans();
+        // Освобождаем буферы FFTW
+        FFTWPlanCache.free(in);
+        FFTWPlanCache.free(out);
+        FFTWPlanCache.free(inverseInput);
+        FFTWPlanCache.free(savedSpectrum);
+    }
+
+    // Умножение хранимого спектра плоскостей [from, to) на передаточную функцию построчно
+    // (спектр и функция хранятся в естественном порядке; в режиме r2c используются столбцы 0..width / 2)
+    private void applyFilter(int from, int to, TransferFunction function) {
+        double[] row = new double[spectrumWidth * 2];
+        double[] energy = new double[to - from];
+        for (int i = 0; i < height; i++) {
+            for (int plane = from; plane < to; plane++) {
+                long offset = spectrumRowOffset(plane, i);
+                readRow(outBuffer, offset, row);
+                function.multiplyRow(i, row, spectrumWidth);
+                writeRow(outBuffer, offset, row);
+                // Энергия отфильтрованной строки, пока она в кэше
+                energy[plane - from] += rowEnergy(row);
+            }
+        }
+        for (int plane = from; plane < to; plane++) {
+            filteredEnergy[plane] = energy[plane - from] / ((double) height * width);
+        }
+    }
+
+    // Сумма |X|^2 строки хранимого спектра по всем столбцам полного спектра: в режиме r2c столбец j
+    // хранит и сопряженный столбец width - j, кроме нулевого и (при четной ширине) столбца Найквиста
+    private double rowEnergy(double[] row) {
+        double energy = SpectrumKernels.energy(row, 0, spectrumWidth);
+        if (!realToComplex) {
+            return energy;
+        }
+        double unpaired = SpectrumKernels.energy(row, 0, 1);
+        if (width % 2 == 0) {
+            unpaired += SpectrumKernels.energy(row, spectrumWidth - 1, 1);
+        }
+        return 2 * energy - unpaired;
+    }
+
+    // Возврат планов в кэш (сами планы остаются доступны для следующих объектов)
+    private void releasePlans() {
+        if (forwardPlan != null) {
+            forwardPlan.release();
+            forwardPlan = null;
+        }
+        if (inversePlan != null) {
+            inversePlan.release();
+            inversePlan = null;
+        }
+    }
+
+    // Длина строки входного массива: вещественные значения в режиме r2c, пары re, im иначе
+    private int inputRowLength() {
+        return realToComplex ? width : width * 2;
+    }
+
+    // Смещение строки i плоскости во входном буфере
+    private long inputRowOffset(int plane, int i) {
+        checkPlane(plane);
+        return (long) plane * inDistance + (long) i * inputRowLength();
+    }
+
+    // Смещение строки i плоскости в буфере спектра
+    private long spectrumRowOffset(int plane, int i) {
+        checkPlane(plane);
+        return (long) plane * outDistance + (long) i * spectrumWidth * 2;
+    }
+
+    // Проверка размеров изображения (если задано) и номеров каналов для каждой плоскости
+    private void checkImage(BufferedImage image, int[] channels) {
+        if (image != null && (image.getWidth() != width || image.getHeight() != height)) {
+            throw new IllegalArgumentException("Image size " + image.getWidth() + "x" + image.getHeight()
+                    + " does not match " + width + "x" + height);
+        }
+        if (channels.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " channels, got " + channels.length);
+        }
+        for (int channel : channels) {
+            if (channel < 0 || channel > 2) {
+                throw new IllegalArgumentException("Invalid channel: " + channel);
+            }
+        }
+    }
+
+    private void checkPlane(int plane) {
+        if (plane < 0 || plane >= count) {
+            throw new IndexOutOfBoundsException("Plane " + plane + " out of " + count);
+        }
+    }
+
+    // Заполнение строки входного массива (пары re, im) значениями пикселей; спектр не центрируется
+    // модуляцией, центрирование выполняется только при отображении (FFTShift)
+    private void fillInputRow(double[] source, int offset, double[] row) {
+        if (realToComplex) {
+            System.arraycopy(source, offset, row, 0, width);
+        } else {
+            for (int j = 0; j < width; j++) {
+                row[2 * j] = source[offset + j];
+                row[2 * j + 1] = 0;
+            }
+        }
+    }
+
+    // Извлечение нормированных значений пикселей из строки входного массива после обратного преобразования
+    private void extractInputRow(double[] row, double[] destination, int offset) {
+        double scale = 1 / ((double) height * width);
+        int step = realToComplex ? 1 : 2;
+        for (int j = 0; j < width; j++) {
+            destination[offset + j] = row[j * step] * scale;
+        }
+    }
+
+    // Вычисление амплитуд строки i полного спектра плоскости в естественном порядке; в режиме r2c
+    // отрицательные частоты восстанавливаются по эрмитовой симметрии X[i][j] = conj(X[-i][-j]),
+    // для амплитуды достаточно зеркального элемента
+    private void magnitudeRow(int plane, int i, double[] row, double[] mirrorRow, double[] destination) {
+        readRow(outBuffer, spectrumRowOffset(plane, i), row);
+        SpectrumKernels.magnitude(row, 0, destination, 0, spectrumWidth);
+        if (realToComplex) {
+            // destination[j] = |mirrorRow[width - j]| для j >= spectrumWidth: амплитуды зеркальной строки
+            // считаются подряд и переставляются в обратном порядке
+            readRow(outBuffer, spectrumRowOffset(plane, (height - i) % height), mirrorRow);
+            SpectrumKernels.magnitude(mirrorRow, 1, destination, spectrumWidth, width - spectrumWidth);
+            SpectrumKernels.reverse(destination, spectrumWidth, width - spectrumWidth);
+        }
+    }
+
+    // Квадраты амплитуд строки i полного спектра плоскости без восстановления порядка столбцов:
+    // в режиме r2c амплитуды отрицательных частот берутся из зеркальной строки подряд (для поиска диапазона)
+    private void powerRow(int plane, int i, double[] row, double[] mirrorRow, double[] destination) {
+        readRow(outBuffer, spectrumRowOffset(plane, i), row);
+        SpectrumKernels.power(row, 0, destination, 0, spectrumWidth);
+        if (realToComplex) {
+            readRow(outBuffer, spectrumRowOffset(plane, (height - i) % height), mirrorRow);
+            SpectrumKernels.power(mirrorRow, 1, destination, spectrumWidth, width - spectrumWidth);
+        }
+    }
+
+    // Нормализация значений в диапазон [0, 1]
+    private static void normalize(ImagePlane plane, double min, double max) {
+        double[] data = plane.getData();
+        SpectrumKernels.affine(data, 0, data.length, min, 1 / (max - min));
+    }
+
+    // Копирование строки из буфера FFTW одной операцией (из буфера одинарной точности - с расширением до double)
+    private static void readRow(Buffer buffer, long offset, double[] row) {
+        if (buffer instanceof DoubleBuffer) {
+            DoubleBuffer view = ((DoubleBuffer) buffer).duplicate();
+            view.position((int) offset);
+            view.get(row, 0, row.length);
+            return;
+        }
+        FloatBuffer floats = (FloatBuffer) buffer;
+        int start = (int) offset;
+        for (int j = 0; j < row.length; j++) {
+            row[j] = floats.get(start + j);
+        }
+    }
+
+    // Копирование строки в буфер FFTW одной операцией
+    private static void writeRow(Buffer buffer, long offset, double[] row) {
+        writeRow(buffer, offset, row, 0, row.length);
+    }
+
+    // Копирование части массива [from, from + length) в буфер FFTW одной операцией
+    // (в буфер одинарной точности - с округлением до float)
+    private static void writeRow(Buffer buffer, long offset, double[] source, int from, int length) {
+        if (buffer instanceof DoubleBuffer) {
+            DoubleBuffer view = ((DoubleBuffer) buffer).duplicate();
+            view.position((int) offset);
+            view.put(source, from, length);
+            return;
+        }
+        FloatBuffer floats = (FloatBuffer) buffer;
+        int start = (int) offset;
+        for (int j = 0; j < length; j++) {
+            floats.put(start + j, (float) source[from + j]);
+        }
+    }
+
+    // Буферы для вычисления строк представления в естественном порядке и частичный диапазон их значений
+    // (один объект на часть параллельного потока строк)
+    private final class ViewRows {
+        private final int plane;
+        private final View view;
+        private final double[] row;
+        private final double[] mirrorRow;
+        private final double[] values = new double[width];
+        // Строка в центрированном порядке (только для вывода спектров)
+        private double[] shifted;
+        private final double[] range = {Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+        private ViewRows(int plane, View view) {
+            this.plane = plane;
+            this.view = view;
+            this.row = new double[view == View.REAL ? inputRowLength() : spectrumWidth * 2];
+            this.mirrorRow = view != View.REAL && realToComplex ? new double[spectrumWidth * 2] : null;
+        }
+
+        // Значения строки i представления в values
+        private void compute(int i) {
+            if (view == View.REAL) {
+                readRow(inBuffer, inputRowOffset(plane, i), row);
+                extractInputRow(row, values, 0);
+                return;
+            }
+            magnitudeRow(plane, i, row, mirrorRow, values);
+            if (view == View.LOG_MAGNITUDE) {
+                SpectrumKernels.logPlusOne(values, 0, width);
+            }
+        }
+
+        // Учет строки i в частичном диапазоне (для спектров - квадраты амплитуд в произвольном порядке)
+        private void accumulate(int i) {
+            if (view == View.REAL) {
+                compute(i);
+            } else {
+                powerRow(plane, i, row, mirrorRow, values);
+            }
+            SpectrumKernels.minMax(values, 0, width, range);
+        }
+
+        // Запись строки i в компоненту channelShift пикселей: (v - shift) * scale с отсечением до 0..255
+        private void render(int i, int[] pixels, double shift, double scale, int channelShift) {
+            compute(i);
+            if (view == View.REAL) {
+                SpectrumKernels.affineToChannel(values, 0, pixels, i * width, width, shift, scale, channelShift);
+                return;
+            }
+            if (shifted == null) {
+                shifted = new double[width];
+            }
+            FFTShift.shiftRow(values, 0, shifted, 0, width);
+            SpectrumKernels.affineToChannel(shifted, 0, pixels, FFTShift.shiftIndex(i, height) * width, width, shift,
+                    scale, channelShift);
+        }
+
+        private void combine(ViewRows other) {
+            range[0] = Math.min(range[0], other.range[0]);
+            range[1] = Math.max(range[1], other.range[1]);
+        }
+    }
+}
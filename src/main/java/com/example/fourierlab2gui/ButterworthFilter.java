@@ -0,0 +1,31 @@
+package com.example.fourierlab2gui;
+
+public class ButterworthFilter implements Filter {
+    // Пороговое значение для фильтра
+    private double D0;
+    // Порядок фильтра (крутизна перехода)
+    private int order;
+    // Фильтр высоких (true) или низких (false) частот
+    private boolean highPass;
+
+    // Конструктор класса
+    public ButterworthFilter(double D0, int order, boolean highPass) {
+        this.D0 = D0;
+        this.order = order;
+        this.highPass = highPass;
+    }
+
+    // Передаточная функция: 1 / (1 + (D / D0)^2n) для низких частот и 1 / (1 + (D0 / D)^2n) для высоких
+    @Override
+    public TransferFunction getTransferFunction(int width, int height) {
+        return TransferFunction.get(highPass ? TransferFunction.Type.BUTTERWORTH_HIGH_PASS
+                : TransferFunction.Type.BUTTERWORTH_LOW_PASS, width, height, D0, order);
+    }
+
+    // Та же передаточная функция для фрагмента изображения imageWidth x imageHeight
+    @Override
+    public TransferFunction getTileTransferFunction(int width, int height, int imageWidth, int imageHeight) {
+        return TransferFunction.forTile(highPass ? TransferFunction.Type.BUTTERWORTH_HIGH_PASS
+                : TransferFunction.Type.BUTTERWORTH_LOW_PASS, width, height, imageWidth, imageHeight, D0, order);
+    }
+}
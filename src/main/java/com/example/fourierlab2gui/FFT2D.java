@@ -1,232 +1,135 @@
 package com.example.fourierlab2gui;
 
-import org.bytedeco.javacpp.*;
-import static org.bytedeco.fftw.global.fftw3.*;
-
 
 public class FFT2D {
-    // Высота и ширина изображения
-    private final int height;
-    private final int width;
-    // Входной и выходной массивы для FFTW
-    private final DoublePointer in;
-    private final DoublePointer out;
-    // План преобразования Фурье
-    private fftw_plan plan;
+    // Пакетное преобразование из одной плоскости, выполняющее всю работу
+    private final BatchFFT2D batch;
 
     // Конструктор класса
     public FFT2D(int height, int width) {
-        // Инициализация высоты и ширины
-        this.height = height;
-        this.width = width;
-        // Инициализация входного и выходного массивов
-        this.in = new DoublePointer((long) height * width * 2);
-        this.out = new DoublePointer((long) height * width * 2);
+        this(height, width, false);
+    }
+
+    // Конструктор класса с выбором режима вещественного преобразования
+    public FFT2D(int height, int width, boolean realToComplex) {
+        this.batch = new BatchFFT2D(1, height, width, realToComplex);
+    }
+
+    // Конструктор класса с выбором режима и количества потоков FFTW
+    public FFT2D(int height, int width, boolean realToComplex, int threads) {
+        this.batch = new BatchFFT2D(1, height, width, realToComplex, threads);
+    }
+
+    // Проверка режима вещественного преобразования
+    public boolean isRealToComplex() {
+        return batch.isRealToComplex();
+    }
+
+    public int getThreads() {
+        return batch.getThreads();
+    }
+
+    // Установка количества потоков FFTW (планы будут получены заново при следующем преобразовании)
+    public void setThreads(int threads) {
+        batch.setThreads(threads);
     }
 
     // Метод для установки данных изображения
     public void setImageData(double[][] imageData) {
-        // Проходим по всем пикселям изображения
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                // Устанавливаем реальную и мнимую части для каждого пикселя
-                in.put(((long) i * width + j) * 2, imageData[i][j] * degree(i + j));
-                in.put(((long) i * width + j) * 2 + 1, 0);
-            }
-        }
+        batch.setImageData(0, imageData);
+    }
+
+    // Метод для установки данных изображения из плоского массива (построчно, height * width)
+    public void setImageData(double[] imageData) {
+        batch.setImageData(0, imageData);
+    }
+
+    // Метод для установки данных изображения из плоскости (строки копируются в буфер FFTW целиком)
+    public void setImageData(ImagePlane imageData) {
+        batch.setImageData(0, imageData);
     }
 
     // Метод для получения данных изображения
     public double[][] getImageData() {
-        // Создаем массив для хранения данных изображения
-        double[][] imageData = new double[height][width];
+        return batch.getImageData(0);
+    }
 
-        // Проходим по всем пикселям изображения
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                // Получаем данные для каждого пикселя
-                imageData[i][j] = in.get(((long) i * width + j) * 2) / (height * width)
-                        * degree(i + j);
-            }
-        }
+    // Метод для получения данных изображения в плоский массив (построчно, height * width)
+    public void getImageData(double[] imageData) {
+        batch.getImageData(0, imageData);
+    }
 
-        return imageData;
+    // Метод для получения данных изображения в виде плоскости
+    public ImagePlane getImagePlane() {
+        return batch.getImagePlane(0);
     }
 
     // Метод для выполнения прямого преобразования Фурье
     public void forwardTransform() {
-        // Создаем план прямого преобразования Фурье
-        plan = fftw_plan_dft_2d(
-                height, width, in, out, FFTW_FORWARD, (int) FFTW_ESTIMATE);
-        // Выполняем прямое преобразование Фурье
-        fftw_execute(plan);
+        batch.forwardTransform();
     }
 
     // Метод для получения результата прямого преобразования Фурье
     public TransformData getForwardTransform() {
-        // Создаем массив для хранения результата преобразования
-        double[][] forwardTransform = new double[height][width];
-        double min = Double.MAX_VALUE;
-        double max = Double.MIN_VALUE;
-        // Проходим по всем пикселям изображения
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                // Получаем реальную и мнимую части для каждого пикселя
-                double real = out.get(((long) i * width + j) * 2);
-                double imag = out.get(((long) i * width + j) * 2 + 1);
-                // Вычисляем амплитуду для каждого пикселя
-                forwardTransform[i][j] = Math.sqrt(real * real + imag * imag);
-                // Обновляем минимальное и максимальное значения
-                if (forwardTransform[i][j] < min) {
-                    min = forwardTransform[i][j];
-                }
-                if (forwardTransform[i][j] > max) {
-                    max = forwardTransform[i][j];
-                }
-            }
-        }
-        return new TransformData(forwardTransform, min, max);
+        return batch.getForwardTransform(0);
     }
 
     // Метод для получения спектра
     public TransformData getSpectrum() {
-        // Создаем массив для хранения спектра
-        double[][] spectrum = new double[height][width];
-        double min = Double.MAX_VALUE;
-        double max = Double.MIN_VALUE;
-        // Проходим по всем пикселям изображения
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                // Получаем реальную и мнимую части для каждого пикселя
-                double real = out.get(((long) i * width + j) * 2);
-                double imag = out.get(((long) i * width + j) * 2 + 1);
-                // Вычисляем магнитуду для каждого пикселя
-                double magnitude = Math.log(Math.sqrt(real * real + imag * imag) + 1);
-                spectrum[i][j] = magnitude;
-                // Обновляем минимальное и максимальное значения
-                if (magnitude < min) {
-                    min = magnitude;
-                }
-                if (magnitude > max) {
-                    max = magnitude;
-                }
-            }
-        }
-        // Нормализуем спектр
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                spectrum[i][j] = (spectrum[i][j] - min) / (max - min);
-            }
-        }
-        return new TransformData(spectrum, min, max);
+        return batch.getSpectrum(0);
     }
 
     // Метод для получения обратного преобразования Фурье
     public TransformData getInverseTransform() {
-        // Создаем план обратного преобразования Фурье
-        fftw_plan inversePlan = fftw_plan_dft_2d(
-                height, width, out, in, FFTW_BACKWARD, (int) FFTW_ESTIMATE);
-        // Выполняем обратное преобразование Фурье
-        fftw_execute(inversePlan);
-        // Уничтожаем план преобразования Фурье
-        fftw_destroy_plan(inversePlan);
-
-        // Создаем массив для хранения результата обратного преобразования
-        double[][] inverseTransform = new double[height][width];
-        double min = Double.MAX_VALUE;
-        double max = Double.MIN_VALUE;
-        // Проходим по всем пикселям изображения
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                // Получаем значение для каждого пикселя
-                double value = in.get(((long) i * width + j) * 2) / (height * width)
-                        * degree(i + j);
-                inverseTransform[i][j] = value;
-                // Обновляем минимальное и максимальное значения
-                if (value < min) {
-                    min = value;
-                }
-                if (value > max) {
-                    max = value;
-                }
-            }
-        }
-        // Нормализуем обратное преобразование
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                inverseTransform[i][j] = (inverseTransform[i][j] - min) / (max - min);
-            }
-        }
-        return new TransformData(inverseTransform, min, max);
-    }
-
-    // Метод для применения фильтра высоких частот
-    public void applyHighPassFilter(double D0) {
-        // Определение центра изображения
-        int centerX = width / 2;
-        int centerY = height / 2;
-
-        // Проходим по всем пикселям изображения
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                // Вычисляем расстояние от текущего пикселя до центра изображения
-                double distance = Math.hypot(i - centerX, j - centerY);
-
-                // Если расстояние меньше частоты среза, то обнуляем пиксель
-                if (distance < D0) {
-                    out.put(((long) j * width + i) * 2, 0);
-                    out.put(((long) j * width + i) * 2 + 1, 0);
-                }
-            }
-        }
+        batch.inverseTransform();
+        return batch.getInverseTransform(0);
     }
 
+    // Метод для применения фильтра (спектр умножается на передаточную функцию на месте)
+    public void applyFilter(Filter filter) {
+        batch.applyFilter(filter);
+    }
 
-
+    // Метод для применения идеального фильтра высоких частот
+    public void applyHighPassFilter(double D0) {
+        batch.applyHighPassFilter(D0);
+    }
 
     // Метод для применения фильтра Гаусса низких частот
     public void applyGaussianLowPassFilter(double cutoffFrequency) {
-        // Проходим по всем пикселям изображения
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                // Вычисляем расстояние от текущего пикселя до центра изображения
-                double distance =
-                        Math.sqrt(Math.pow(i - height / 2, 2) + Math.pow(j - width / 2, 2));
-                // Вычисляем Гауссову функцию для текущего пикселя
-                double gaussian =
-                        Math.exp(-Math.pow(distance, 2) / (2 * Math.pow(cutoffFrequency, 2)));
-                // Применяем Гауссову функцию к реальной и мнимой частям каждого пикселя
-                out.put(((long) i * width + j) * 2,
-                        out.get(((long) i * width + j) * 2) * gaussian);
-                out.put(((long) i * width + j) * 2 + 1,
-                        out.get(((long) i * width + j) * 2 + 1) * gaussian);
-            }
-        }
+        batch.applyGaussianLowPassFilter(cutoffFrequency);
     }
 
-    public void cleanup() {
-        // Уничтожаем план преобразования Фурье
-        fftw_destroy_plan(plan);
-        // Очищаем все ресурсы, связанные с FFTW
-        fftw_cleanup();
+    // Ширина хранимого спектра (width / 2 + 1 в режиме r2c)
+    public int getSpectrumWidth() {
+        return batch.getSpectrumWidth();
     }
 
-    public void setSpectrum(double[][] newSpectrum) {
-        // Проходим по всем пикселям изображения
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                // Устанавливаем новые значения спектра для каждого пикселя
-                out.put(((long) i * width + j) * 2, newSpectrum[i][j]);
-                out.put(((long) i * width + j) * 2 + 1, 0);
-            }
-        }
+    // Копирование хранимого спектра в плоский массив (height * getSpectrumWidth() пар re, im)
+    public void getSpectrumData(double[] spectrumData) {
+        batch.getSpectrumData(0, spectrumData);
     }
 
-    private static float degree(int n) {
-        // Функция для определения степени мнимой части
-        return (1 - 2 * (n % 2));
+    // Установка хранимого спектра из плоского массива (height * getSpectrumWidth() пар re, im)
+    public void setSpectrumData(double[] spectrumData) {
+        batch.setSpectrumData(0, spectrumData);
     }
-}
 
+    // Сохранение текущего спектра для повторной фильтрации без прямого преобразования
+    public void saveSpectrum() {
+        batch.saveSpectrum();
+    }
+
+    // Восстановление сохраненного спектра
+    public void restoreSpectrum() {
+        batch.restoreSpectrum();
+    }
 
+    public void cleanup() {
+        batch.cleanup();
+    }
 
+    public void setSpectrum(double[][] newSpectrum) {
+        batch.setSpectrum(0, newSpectrum);
+    }
+}
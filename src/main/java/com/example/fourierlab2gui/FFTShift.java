@@ -0,0 +1,82 @@
+package com.example.fourierlab2gui;
+
+public final class FFTShift {
+    private FFTShift() {
+    }
+
+    // Перенос нулевой частоты в центр: элемент (u, v) переходит в ((u + width / 2) % width, (v + height / 2) % height);
+    // для нечетных размеров сдвиг также точный (циклический), в отличие от умножения на (-1)^(x + y)
+    public static ImagePlane fftshift(ImagePlane plane) {
+        roll(plane, plane.getWidth() / 2, plane.getHeight() / 2);
+        return plane;
+    }
+
+    // Обратный перенос: центр спектра возвращается в элемент (0, 0)
+    public static ImagePlane ifftshift(ImagePlane plane) {
+        int width = plane.getWidth();
+        int height = plane.getHeight();
+        roll(plane, width - width / 2, height - height / 2);
+        return plane;
+    }
+
+    // Позиция в центрированном спектре для индекса k естественного порядка (длина n)
+    public static int shiftIndex(int k, int n) {
+        return (k + n / 2) % n;
+    }
+
+    // Индекс естественного порядка для позиции s в центрированном спектре (длина n)
+    public static int unshiftIndex(int s, int n) {
+        return (s + n - n / 2) % n;
+    }
+
+    // Копирование строки естественного порядка в центрированном порядке: destination[shiftIndex(k)] = source[k]
+    public static void shiftRow(double[] source, int sourceOffset, double[] destination, int destinationOffset,
+                                int length) {
+        int half = length - length / 2;
+        System.arraycopy(source, sourceOffset + half, destination, destinationOffset, length - half);
+        System.arraycopy(source, sourceOffset, destination, destinationOffset + length - half, half);
+    }
+
+    // Циклический сдвиг плоскости на месте: сначала каждой строки на dx, затем строк на dy
+    // (поворот отрезка выполняется тремя разворотами, дополнительная память - одна строка)
+    private static void roll(ImagePlane plane, int dx, int dy) {
+        int width = plane.getWidth();
+        int height = plane.getHeight();
+        int stride = plane.getStride();
+        double[] data = plane.getData();
+        dx %= Math.max(1, width);
+        dy %= Math.max(1, height);
+        if (dx != 0) {
+            for (int y = 0; y < height; y++) {
+                int offset = y * stride;
+                reverse(data, offset, offset + width);
+                reverse(data, offset, offset + dx);
+                reverse(data, offset + dx, offset + width);
+            }
+        }
+        if (dy != 0) {
+            double[] row = new double[width];
+            reverseRows(data, stride, width, 0, height, row);
+            reverseRows(data, stride, width, 0, dy, row);
+            reverseRows(data, stride, width, dy, height, row);
+        }
+    }
+
+    // Разворот отрезка [from, to) массива
+    private static void reverse(double[] data, int from, int to) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            double value = data[i];
+            data[i] = data[j];
+            data[j] = value;
+        }
+    }
+
+    // Разворот порядка строк [from, to) с обменом через временную строку
+    private static void reverseRows(double[] data, int stride, int width, int from, int to, double[] row) {
+        for (int i = from, j = to - 1; i < j; i++, j--) {
+            System.arraycopy(data, i * stride, row, 0, width);
+            System.arraycopy(data, j * stride, data, i * stride, width);
+            System.arraycopy(row, 0, data, j * stride, width);
+        }
+    }
+}
@@ -26,6 +26,8 @@ public class FFTW1D extends Application {
     public static void main(String[] args) {
 // Загрузка библиотеки FFTW (Fastest Fourier Transform in the West)
         Loader.load(org.bytedeco.fftw.global.fftw3.class);
+// Загрузка сохраненной wisdom FFTW
+        FFTWPlanner.loadWisdom();
 // Запуск JavaFX приложения
         launch(args);
     }
@@ -152,6 +154,14 @@ public class FFTW1D extends Application {
         DoublePointer Array_In = new DoublePointer(2 * N);
         DoublePointer Array_Out = new DoublePointer(2 * N);
 
+        // Создание планов прямого и обратного преобразования Фурье до заполнения массивов
+        // (режимы планирования MEASURE и выше перезаписывают содержимое массивов)
+        int flags = FFTWPlanner.flags();
+        fftw3.fftw_plan forwardPlan = FFTWPlanner.plan(flags, () ->
+                fftw3.fftw_plan_dft_1d(N, Array_In, Array_Out, fftw3.FFTW_FORWARD, flags));
+        fftw3.fftw_plan backwardPlan = FFTWPlanner.plan(flags, () ->
+                fftw3.fftw_plan_dft_1d(N, Array_Out, Array_In, fftw3.FFTW_BACKWARD, flags));
+
         // Создание массива для хранения исходного сигнала
         double[] s = new double[(int)Array_In.capacity()];
 
@@ -175,10 +185,8 @@ public class FFTW1D extends Application {
         // Умножение входного массива на мнимую часть
         multiplyOnImag(Array_In, N);
 
-        // Создание плана прямого преобразования Фурье
-        fftw3.fftw_plan plan = fftw3.fftw_plan_dft_1d(N, Array_In, Array_Out, fftw3.FFTW_FORWARD, (int)FFTW_ESTIMATE);
         // Выполнение прямого преобразования Фурье
-        fftw3.fftw_execute(plan);
+        fftw3.fftw_execute(forwardPlan);
 
         // Получение спектра сигнала
         List<Double> spectrum = getSpectrum(Array_Out, N);
@@ -189,10 +197,8 @@ public class FFTW1D extends Application {
             spectrum_array[i] = spectrum.get(i);
         }
 
-        // Создание плана обратного преобразования Фурье
-        plan = fftw3.fftw_plan_dft_1d(N, Array_Out, Array_In, fftw3.FFTW_BACKWARD, (int)FFTW_ESTIMATE);
         // Выполнение обратного преобразования Фурье
-        fftw3.fftw_execute(plan);
+        fftw3.fftw_execute(backwardPlan);
 
         // Масштабирование результата обратного преобразования Фурье
         getScale(Array_In, N);
@@ -209,8 +215,9 @@ public class FFTW1D extends Application {
             dft_array[i] = dftArray.get(i);
         }
 
-        // Уничтожение плана преобразования Фурье
-        fftw3.fftw_destroy_plan(plan);
+        // Уничтожение планов преобразования Фурье
+        fftw3.fftw_destroy_plan(forwardPlan);
+        fftw3.fftw_destroy_plan(backwardPlan);
 
         // Возвращение исходного сигнала, спектра и восстановленного сигнала
         return List.of(source_signal, spectrum_array, dft_array);
@@ -0,0 +1,442 @@
+package com.example.fourierlab2gui;
+
+import org.bytedeco.javacpp.*;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.bytedeco.fftw.global.fftw3.*;
+
+public final class FFTWPlanCache {
+    // Максимальное количество планов, хранимых без ссылок
+    private static int capacity = 32;
+    // Планы в порядке последнего использования (для вытеснения LRU)
+    private static final LinkedHashMap<Key, Entry> PLANS = new LinkedHashMap<>(16, 0.75f, true);
+
+    private FFTWPlanCache() {
+    }
+
+    // Вид преобразования: комплексное, вещественное в комплексное и обратно
+    public enum Kind {
+        COMPLEX,
+        REAL_TO_COMPLEX,
+        COMPLEX_TO_REAL
+    }
+
+    // Точность преобразования: double (fftw_*) или float (fftwf_*, вдвое меньше памяти и обмена с ней)
+    public enum Precision {
+        DOUBLE(Double.BYTES),
+        SINGLE(Float.BYTES);
+
+        private final int bytes;
+
+        Precision(int bytes) {
+            this.bytes = bytes;
+        }
+
+        // Размер одного значения в байтах
+        public int getBytes() {
+            return bytes;
+        }
+    }
+
+    // Ключ плана: вид, точность, количество плоскостей, размеры, направление, расположение буферов, флаги
+    // и число потоков
+    public static final class Key {
+        private final Kind kind;
+        private final Precision precision;
+        private final int count;
+        private final int height;
+        private final int width;
+        private final int direction;
+        private final boolean inPlace;
+        private final int flags;
+        private final int threads;
+
+        public Key(Kind kind, int height, int width, int direction, boolean inPlace, int flags, int threads) {
+            this(kind, 1, height, width, direction, inPlace, flags, threads);
+        }
+
+        // Ключ пакетного плана: count плоскостей одного размера, лежащих в буфере подряд
+        public Key(Kind kind, int count, int height, int width, int direction, boolean inPlace, int flags,
+                   int threads) {
+            this(kind, Precision.DOUBLE, count, height, width, direction, inPlace, flags, threads);
+        }
+
+        // Ключ пакетного плана заданной точности
+        public Key(Kind kind, Precision precision, int count, int height, int width, int direction, boolean inPlace,
+                   int flags, int threads) {
+            if (count < 1) {
+                throw new IllegalArgumentException("Invalid plane count: " + count);
+            }
+            this.kind = kind;
+            this.precision = precision;
+            this.count = count;
+            this.height = height;
+            this.width = width;
+            this.direction = direction;
+            this.inPlace = inPlace;
+            this.flags = flags;
+            this.threads = Math.max(1, threads);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return kind == key.kind && precision == key.precision && count == key.count && height == key.height && width == key.width
+                    && direction == key.direction && inPlace == key.inPlace && flags == key.flags
+                    && threads == key.threads;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, precision, count, height, width, direction, inPlace, flags, threads);
+        }
+
+        @Override
+        public String toString() {
+            return kind + (precision == Precision.SINGLE ? " single" : "") + (count > 1 ? " " + count + " x " : " ") + height + "x" + width + (direction == FFTW_FORWARD ? " forward" : " backward")
+                    + (inPlace ? " in-place" : " out-of-place") + " flags=" + flags + " threads=" + threads;
+        }
+    }
+
+    // Запись кэша: план FFTW (fftw_plan или fftwf_plan) и количество активных ссылок на него
+    private static final class Entry {
+        private final Pointer plan;
+        private int refCount;
+
+        private Entry(Pointer plan) {
+            this.plan = plan;
+        }
+    }
+
+    // Ссылка на план из кэша, выдаваемая пользователю
+    public static final class Plan {
+        private final Key key;
+        private final Pointer plan;
+        private boolean released;
+
+        private Plan(Key key, Pointer plan) {
+            this.key = key;
+            this.plan = plan;
+        }
+
+        public Key getKey() {
+            return key;
+        }
+
+        // Выполнение плана на заданных буферах (функции fftw_execute_* потокобезопасны)
+        public void execute(DoublePointer in, DoublePointer out) {
+            checkExecutable(Precision.DOUBLE);
+            fftw_plan plan = (fftw_plan) this.plan;
+            switch (key.kind) {
+                case REAL_TO_COMPLEX:
+                    fftw_execute_dft_r2c(plan, in, out);
+                    break;
+                case COMPLEX_TO_REAL:
+                    fftw_execute_dft_c2r(plan, in, out);
+                    break;
+                default:
+                    fftw_execute_dft(plan, in, out);
+                    break;
+            }
+        }
+
+        // Выполнение плана одинарной точности на заданных буферах
+        public void execute(FloatPointer in, FloatPointer out) {
+            checkExecutable(Precision.SINGLE);
+            fftwf_plan plan = (fftwf_plan) this.plan;
+            switch (key.kind) {
+                case REAL_TO_COMPLEX:
+                    fftwf_execute_dft_r2c(plan, in, out);
+                    break;
+                case COMPLEX_TO_REAL:
+                    fftwf_execute_dft_c2r(plan, in, out);
+                    break;
+                default:
+                    fftwf_execute_dft(plan, in, out);
+                    break;
+            }
+        }
+
+        // Выполнение на буферах точности плана (DoublePointer или FloatPointer)
+        public void execute(Pointer in, Pointer out) {
+            if (key.precision == Precision.SINGLE) {
+                execute((FloatPointer) in, (FloatPointer) out);
+            } else {
+                execute((DoublePointer) in, (DoublePointer) out);
+            }
+        }
+
+        private void checkExecutable(Precision precision) {
+            if (released) {
+                throw new IllegalStateException("Plan already released: " + key);
+            }
+            if (key.precision != precision) {
+                throw new IllegalArgumentException("Buffers do not match plan precision: " + key);
+            }
+        }
+
+        // Возврат ссылки в кэш
+        public void release() {
+            if (!released) {
+                released = true;
+                FFTWPlanCache.release(key);
+            }
+        }
+    }
+
+    // Получение плана двумерного комплексного преобразования из кэша (или его создание)
+    public static Plan acquire(int height, int width, int direction, boolean inPlace, int flags) {
+        return acquire(height, width, direction, inPlace, flags, 1);
+    }
+
+    // То же с заданным числом потоков FFTW на один план
+    public static Plan acquire(int height, int width, int direction, boolean inPlace, int flags, int threads) {
+        return acquire(new Key(Kind.COMPLEX, height, width, direction, inPlace, flags, threads));
+    }
+
+    // Получение плана двумерного вещественного преобразования: прямое r2c или обратное c2r
+    public static Plan acquireReal(int height, int width, int direction, int flags) {
+        return acquireReal(height, width, direction, flags, 1);
+    }
+
+    // То же с заданным числом потоков FFTW на один план
+    public static Plan acquireReal(int height, int width, int direction, int flags, int threads) {
+        Kind kind = direction == FFTW_FORWARD ? Kind.REAL_TO_COMPLEX : Kind.COMPLEX_TO_REAL;
+        return acquire(new Key(kind, height, width, direction, false, flags, threads));
+    }
+
+    // Получение пакетного плана комплексного преобразования count плоскостей (fftw_plan_many_dft)
+    public static Plan acquireBatch(int count, int height, int width, int direction, boolean inPlace, int flags,
+                                    int threads) {
+        return acquire(new Key(Kind.COMPLEX, count, height, width, direction, inPlace, flags, threads));
+    }
+
+    // Получение пакетного плана вещественного преобразования count плоскостей: прямое r2c или обратное c2r
+    public static Plan acquireRealBatch(int count, int height, int width, int direction, int flags, int threads) {
+        return acquireRealBatch(Precision.DOUBLE, count, height, width, direction, flags, threads);
+    }
+
+    // То же для заданной точности
+    public static Plan acquireRealBatch(Precision precision, int count, int height, int width, int direction,
+                                        int flags, int threads) {
+        Kind kind = direction == FFTW_FORWARD ? Kind.REAL_TO_COMPLEX : Kind.COMPLEX_TO_REAL;
+        return acquire(new Key(kind, precision, count, height, width, direction, false, flags, threads));
+    }
+
+    // Получение пакетного плана комплексного преобразования заданной точности
+    public static Plan acquireBatch(Precision precision, int count, int height, int width, int direction,
+                                    boolean inPlace, int flags, int threads) {
+        return acquire(new Key(Kind.COMPLEX, precision, count, height, width, direction, inPlace, flags, threads));
+    }
+
+    // Получение плана по ключу из кэша (или его создание)
+    public static synchronized Plan acquire(Key key) {
+        Entry entry = PLANS.get(key);
+        if (entry == null) {
+            entry = new Entry(createPlan(key));
+            PLANS.put(key, entry);
+            evict();
+        }
+        entry.refCount++;
+        return new Plan(key, entry.plan);
+    }
+
+    // Уменьшение счетчика ссылок на план
+    private static synchronized void release(Key key) {
+        Entry entry = PLANS.get(key);
+        if (entry != null && entry.refCount > 0) {
+            entry.refCount--;
+        }
+        evict();
+    }
+
+    // Установка максимального количества хранимых планов
+    public static synchronized void setCapacity(int newCapacity) {
+        if (newCapacity < 0) {
+            throw new IllegalArgumentException("Invalid plan cache capacity: " + newCapacity);
+        }
+        capacity = newCapacity;
+        evict();
+    }
+
+    // Количество планов в кэше
+    public static synchronized int size() {
+        return PLANS.size();
+    }
+
+    // Уничтожение всех планов, на которые нет ссылок
+    public static synchronized void clear() {
+        Iterator<Map.Entry<Key, Entry>> iterator = PLANS.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.refCount == 0) {
+                destroy(entry.plan);
+                iterator.remove();
+            }
+        }
+    }
+
+    // Вытеснение давно не использованных планов без ссылок сверх лимита
+    private static void evict() {
+        Iterator<Map.Entry<Key, Entry>> iterator = PLANS.entrySet().iterator();
+        while (PLANS.size() > capacity && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (entry.refCount == 0) {
+                destroy(entry.plan);
+                iterator.remove();
+            }
+        }
+    }
+
+    // Уничтожение плана любой точности
+    private static void destroy(Pointer plan) {
+        if (plan instanceof fftwf_plan) {
+            fftwf_destroy_plan((fftwf_plan) plan);
+        } else {
+            fftw_destroy_plan((fftw_plan) plan);
+        }
+    }
+
+    // Создание плана на временных буферах (режимы MEASURE и выше перезаписывают массивы)
+    private static Pointer createPlan(Key key) {
+        // Вещественный массив занимает height * width, половина спектра - height * (width / 2 + 1) комплексных
+        // (для каждой из count плоскостей)
+        long realSize = (long) key.count * key.height * key.width;
+        long halfSpectrumSize = (long) key.count * key.height * (key.width / 2 + 1) * 2;
+        long inSize = key.kind == Kind.COMPLEX ? realSize * 2
+                : key.kind == Kind.REAL_TO_COMPLEX ? realSize : halfSpectrumSize;
+        long outSize = key.kind == Kind.COMPLEX ? realSize * 2
+                : key.kind == Kind.REAL_TO_COMPLEX ? halfSpectrumSize : realSize;
+        if (key.precision == Precision.SINGLE) {
+            return createSinglePlan(key, inSize, outSize);
+        }
+        DoublePointer in = allocate(key.inPlace ? Math.max(inSize, outSize) : inSize);
+        DoublePointer out = key.inPlace ? in : allocate(outSize);
+        try {
+            fftw_plan plan = FFTWPlanner.plan(key.flags, key.threads, () -> {
+                if (key.count > 1) {
+                    return createManyPlan(key, in, out);
+                }
+                switch (key.kind) {
+                    case REAL_TO_COMPLEX:
+                        return fftw_plan_dft_r2c_2d(key.height, key.width, in, out, key.flags);
+                    case COMPLEX_TO_REAL:
+                        return fftw_plan_dft_c2r_2d(key.height, key.width, in, out, key.flags);
+                    default:
+                        return fftw_plan_dft_2d(key.height, key.width, in, out, key.direction, key.flags);
+                }
+            });
+            if (plan == null || plan.isNull()) {
+                throw new IllegalStateException("FFTW failed to create plan: " + key);
+            }
+            return plan;
+        } finally {
+            free(in);
+            if (out != in) {
+                free(out);
+            }
+        }
+    }
+
+    // Создание плана одинарной точности (всегда пакетного, в том числе для одной плоскости)
+    private static fftwf_plan createSinglePlan(Key key, long inSize, long outSize) {
+        FloatPointer in = allocateSingle(key.inPlace ? Math.max(inSize, outSize) : inSize);
+        FloatPointer out = key.inPlace ? in : allocateSingle(outSize);
+        IntPointer n = new IntPointer(key.height, key.width);
+        try {
+            int realDistance = key.height * key.width;
+            int halfSpectrumDistance = key.height * (key.width / 2 + 1);
+            fftwf_plan plan = FFTWPlanner.plan(Precision.SINGLE, key.flags, key.threads, () -> {
+                switch (key.kind) {
+                    case REAL_TO_COMPLEX:
+                        return fftwf_plan_many_dft_r2c(2, n, key.count, in, null, 1, realDistance,
+                                out, null, 1, halfSpectrumDistance, key.flags);
+                    case COMPLEX_TO_REAL:
+                        return fftwf_plan_many_dft_c2r(2, n, key.count, in, null, 1, halfSpectrumDistance,
+                                out, null, 1, realDistance, key.flags);
+                    default:
+                        return fftwf_plan_many_dft(2, n, key.count, in, null, 1, realDistance,
+                                out, null, 1, realDistance, key.direction, key.flags);
+                }
+            });
+            if (plan == null || plan.isNull()) {
+                throw new IllegalStateException("FFTW failed to create plan: " + key);
+            }
+            return plan;
+        } finally {
+            n.close();
+            free(in);
+            if (out != in) {
+                free(out);
+            }
+        }
+    }
+
+    // Создание пакетного плана: плоскости плотно упакованы и следуют друг за другом
+    private static fftw_plan createManyPlan(Key key, DoublePointer in, DoublePointer out) {
+        IntPointer n = new IntPointer(key.height, key.width);
+        try {
+            // Расстояния между плоскостями задаются в элементах (double для вещественных, пары для комплексных)
+            int realDistance = key.height * key.width;
+            int halfSpectrumDistance = key.height * (key.width / 2 + 1);
+            switch (key.kind) {
+                case REAL_TO_COMPLEX:
+                    return fftw_plan_many_dft_r2c(2, n, key.count, in, null, 1, realDistance,
+                            out, null, 1, halfSpectrumDistance, key.flags);
+                case COMPLEX_TO_REAL:
+                    return fftw_plan_many_dft_c2r(2, n, key.count, in, null, 1, halfSpectrumDistance,
+                            out, null, 1, realDistance, key.flags);
+                default:
+                    return fftw_plan_many_dft(2, n, key.count, in, null, 1, realDistance,
+                            out, null, 1, realDistance, key.direction, key.flags);
+            }
+        } finally {
+            n.close();
+        }
+    }
+
+    // Выделение выровненного буфера FFTW (планы выполняются на буферах с тем же выравниванием)
+    public static DoublePointer allocate(long size) {
+        Pointer pointer = fftw_malloc(size * Double.BYTES);
+        if (pointer == null || pointer.isNull()) {
+            throw new OutOfMemoryError("fftw_malloc failed for " + size + " doubles");
+        }
+        return new DoublePointer(pointer).capacity(size);
+    }
+
+    // Выделение выровненного буфера одинарной точности
+    public static FloatPointer allocateSingle(long size) {
+        Pointer pointer = fftwf_malloc(size * Float.BYTES);
+        if (pointer == null || pointer.isNull()) {
+            throw new OutOfMemoryError("fftwf_malloc failed for " + size + " floats");
+        }
+        return new FloatPointer(pointer).capacity(size);
+    }
+
+    // Выделение буфера заданной точности (DoublePointer или FloatPointer)
+    public static Pointer allocate(Precision precision, long size) {
+        return precision == Precision.SINGLE ? allocateSingle(size) : allocate(size);
+    }
+
+    // Освобождение буфера, выделенного через allocate или allocateSingle
+    public static void free(Pointer pointer) {
+        if (pointer != null && !pointer.isNull()) {
+            if (pointer instanceof FloatPointer) {
+                fftwf_free(pointer);
+            } else {
+                fftw_free(pointer);
+            }
+            pointer.setNull();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.example.fourierlab2gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import static org.bytedeco.fftw.global.fftw3.*;
+
+public final class FFTWPlanner {
+    // Режимы планирования FFTW в порядке возрастания затрат на поиск плана
+    public enum Mode {
+        ESTIMATE(FFTW_ESTIMATE),
+        MEASURE(FFTW_MEASURE),
+        PATIENT(FFTW_PATIENT),
+        EXHAUSTIVE(FFTW_EXHAUSTIVE);
+
+        private final int flags;
+
+        Mode(int flags) {
+            this.flags = flags;
+        }
+
+        public int getFlags() {
+            return flags;
+        }
+    }
+
+    // Системные свойства для настройки планировщика при запуске
+    public static final String MODE_PROPERTY = "fourierlab2gui.fftw.planning";
+    public static final String TIME_LIMIT_PROPERTY = "fourierlab2gui.fftw.timelimit";
+    public static final String WISDOM_PROPERTY = "fourierlab2gui.fftw.wisdom";
+
+    // Блокировка планировщика (создание планов и работа с wisdom в FFTW не потокобезопасны)
+    private static final Object LOCK = new Object();
+
+    // Текущий режим планирования (неверное значение свойства заменяется значением по умолчанию,
+    // чтобы опечатка не делала класс недоступным)
+    private static volatile Mode mode = parseMode(System.getProperty(MODE_PROPERTY));
+    // Ограничение времени планирования в секундах (отрицательное значение - без ограничения)
+    private static volatile double timeLimit = parseTimeLimit(System.getProperty(TIME_LIMIT_PROPERTY));
+    // Файл с накопленной wisdom FFTW
+    private static volatile File wisdomFile = new File(System.getProperty(WISDOM_PROPERTY,
+            System.getProperty("user.home") + File.separator + ".fourierlab2gui" + File.separator + "fftw.wisdom"));
+    // Признак того, что wisdom уже загружена в этом процессе
+    private static boolean wisdomLoaded;
+    // Признак новой wisdom, которая еще не сохранена (сохраняется один раз при завершении процесса)
+    private static boolean wisdomChanged;
+    // Признак зарегистрированного обработчика завершения, сохраняющего wisdom
+    private static boolean shutdownHookAdded;
+    // Состояние многопоточного планировщика: 0 - не инициализирован, 1 - доступен, -1 - недоступен
+    private static int threadsState;
+    // То же для библиотеки одинарной точности (fftwf_init_threads)
+    private static int singleThreadsState;
+
+    private FFTWPlanner() {
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    public static void setMode(Mode newMode) {
+        mode = newMode;
+    }
+
+    public static double getTimeLimit() {
+        return timeLimit;
+    }
+
+    // Установка ограничения времени планирования (fftw_set_timelimit)
+    public static void setTimeLimit(double seconds) {
+        timeLimit = seconds;
+    }
+
+    public static File getWisdomFile() {
+        return wisdomFile;
+    }
+
+    public static void setWisdomFile(File file) {
+        synchronized (LOCK) {
+            wisdomFile = file;
+            wisdomLoaded = false;
+        }
+    }
+
+    // Флаги планировщика для текущего режима
+    public static int flags() {
+        return mode.getFlags();
+    }
+
+    // Загрузка wisdom из файла (вызывается при запуске и перед первым планированием)
+    public static boolean loadWisdom() {
+        synchronized (LOCK) {
+            wisdomLoaded = true;
+            File file = wisdomFile;
+            if (file == null) {
+                return false;
+            }
+            // Wisdom одинарной точности хранится отдельно (у fftwf своя база планов)
+            File singleFile = singleWisdomFile(file);
+            if (singleFile.isFile()) {
+                fftwf_import_wisdom_from_filename(singleFile.getPath());
+            }
+            if (!file.isFile()) {
+                return false;
+            }
+            return fftw_import_wisdom_from_filename(file.getPath()) != 0;
+        }
+    }
+
+    // Сохранение накопленной wisdom в файл; каждый файл записывается во временный и переименовывается,
+    // поэтому другие процессы не увидят частично записанный файл
+    public static boolean saveWisdom() {
+        synchronized (LOCK) {
+            File file = wisdomFile;
+            if (file == null) {
+                return false;
+            }
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                return false;
+            }
+            try {
+                exportWisdom(singleWisdomFile(file), true);
+                boolean saved = exportWisdom(file, false);
+                wisdomChanged = !saved;
+                return saved;
+            } catch (IOException e) {
+                System.err.println("Не удалось сохранить wisdom FFTW: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    // Экспорт wisdom библиотеки двойной или одинарной (single) точности через временный файл в том же каталоге
+    private static boolean exportWisdom(File file, boolean single) throws IOException {
+        Path target = file.getAbsoluteFile().toPath();
+        Path temporary = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try {
+            int result = single ? fftwf_export_wisdom_to_filename(temporary.toString())
+                    : fftw_export_wisdom_to_filename(temporary.toString());
+            if (result == 0) {
+                return false;
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return true;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // Отметка новой wisdom: сохранение откладывается до завершения процесса, чтобы планирование в других
+    // потоках не ждало записи файлов под блокировкой планировщика (вызывается под блокировкой)
+    private static void wisdomChanged() {
+        wisdomChanged = true;
+        if (!shutdownHookAdded) {
+            shutdownHookAdded = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                synchronized (LOCK) {
+                    if (wisdomChanged) {
+                        saveWisdom();
+                    }
+                }
+            }, "fftw-wisdom-save"));
+        }
+    }
+
+    // Режим планирования из значения системного свойства. По умолчанию ESTIMATE: планирование выполняется
+    // под общей блокировкой, и MEASURE для каждого нового размера изображения занимает секунды (десятки
+    // секунд для пакета больших плоскостей), почти не ускоряя само преобразование; MEASURE и выше включаются
+    // явно (свойство или --planning в FourierBatchCLI)
+    private static Mode parseMode(String value) {
+        if (value == null) {
+            return Mode.ESTIMATE;
+        }
+        try {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Неверное значение " + MODE_PROPERTY + ": " + value + ", используется ESTIMATE");
+            return Mode.ESTIMATE;
+        }
+    }
+
+    // Ограничение времени планирования из значения системного свойства (по умолчанию без ограничения)
+    private static double parseTimeLimit(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Неверное значение " + TIME_LIMIT_PROPERTY + ": " + value + ", ограничения нет");
+            return -1;
+        }
+    }
+
+    // Инициализация многопоточного FFTW (fftw_init_threads), выполняется один раз
+    public static boolean initThreads() {
+        synchronized (LOCK) {
+            if (threadsState == 0) {
+                threadsState = fftw_init_threads() != 0 ? 1 : -1;
+            }
+            return threadsState > 0;
+        }
+    }
+
+    // Инициализация многопоточного FFTW одинарной точности (fftwf_init_threads), выполняется один раз
+    public static boolean initSingleThreads() {
+        synchronized (LOCK) {
+            if (singleThreadsState == 0) {
+                singleThreadsState = fftwf_init_threads() != 0 ? 1 : -1;
+            }
+            return singleThreadsState > 0;
+        }
+    }
+
+    // Файл wisdom одинарной точности рядом с основным
+    private static File singleWisdomFile(File file) {
+        return new File(file.getPath() + ".single");
+    }
+
+    // Создание однопоточного плана под блокировкой планировщика
+    public static <T> T plan(int flags, Supplier<T> planner) {
+        return plan(flags, 1, planner);
+    }
+
+    // Создание плана под блокировкой планировщика с учетом wisdom, ограничения времени и числа потоков
+    public static <T> T plan(int flags, int threads, Supplier<T> planner) {
+        return plan(FFTWPlanCache.Precision.DOUBLE, flags, threads, planner);
+    }
+
+    // То же для библиотеки заданной точности (у fftw и fftwf раздельные настройки потоков и времени)
+    public static <T> T plan(FFTWPlanCache.Precision precision, int flags, int threads, Supplier<T> planner) {
+        synchronized (LOCK) {
+            if (!wisdomLoaded) {
+                loadWisdom();
+            }
+            double limit = timeLimit < 0 ? FFTW_NO_TIMELIMIT : timeLimit;
+            // Количество потоков задается глобально для всех последующих планов
+            if (precision == FFTWPlanCache.Precision.SINGLE) {
+                fftwf_set_timelimit(limit);
+                if (threads > 1 && initSingleThreads()) {
+                    fftwf_plan_with_nthreads(threads);
+                } else if (singleThreadsState > 0) {
+                    fftwf_plan_with_nthreads(1);
+                }
+            } else {
+                fftw_set_timelimit(limit);
+                if (threads > 1 && initThreads()) {
+                    fftw_plan_with_nthreads(threads);
+                } else if (threadsState > 0) {
+                    fftw_plan_with_nthreads(1);
+                }
+            }
+            T plan = planner.get();
+            // Результат дорогого планирования сохраняется при завершении процесса, чтобы оно выполнялось
+            // один раз на машину
+            if (flags != FFTW_ESTIMATE) {
+                wisdomChanged();
+            }
+            return plan;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.fourierlab2gui;
+
+public final class FFTWThreadPolicy {
+    // Системное свойство с общим количеством потоков для преобразований
+    public static final String THREADS_PROPERTY = "fourierlab2gui.fftw.threads";
+    // Минимальный размер изображения (в пикселях), начиная с которого FFTW выгодно распараллеливать
+    private static final long MIN_PIXELS_PER_THREAD = 128L * 128L;
+
+    // Общее количество потоков, доступных для преобразований
+    private static volatile int totalThreads =
+            Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+
+    // Количество одновременно выполняемых преобразований (например, цветовых каналов)
+    private final int concurrentTransforms;
+    // Количество потоков FFTW внутри одного преобразования
+    private final int threadsPerTransform;
+
+    private FFTWThreadPolicy(int concurrentTransforms, int threadsPerTransform) {
+        this.concurrentTransforms = concurrentTransforms;
+        this.threadsPerTransform = threadsPerTransform;
+    }
+
+    public static int getTotalThreads() {
+        return totalThreads;
+    }
+
+    public static void setTotalThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Invalid thread count: " + threads);
+        }
+        totalThreads = threads;
+    }
+
+    // Распределение ядер между параллельными преобразованиями и потоками внутри каждого из них
+    public static FFTWThreadPolicy split(int transforms, int height, int width) {
+        int cores = totalThreads;
+        // Сначала распараллеливаем независимые преобразования, остаток ядер отдаем FFTW
+        int concurrent = Math.max(1, Math.min(transforms, cores));
+        int threads = Math.max(1, cores / concurrent);
+        // Маленькие изображения не делим на потоки: накладные расходы больше выигрыша
+        long maxUsefulThreads = Math.max(1, (long) height * width / MIN_PIXELS_PER_THREAD);
+        threads = (int) Math.min(threads, maxUsefulThreads);
+        return new FFTWThreadPolicy(concurrent, threads);
+    }
+
+    public int getConcurrentTransforms() {
+        return concurrentTransforms;
+    }
+
+    public int getThreadsPerTransform() {
+        return threadsPerTransform;
+    }
+
+    @Override
+    public String toString() {
+        return concurrentTransforms + " x " + threadsPerTransform + " threads";
+    }
+}
@@ -1,5 +1,37 @@
 package com.example.fourierlab2gui;
 
 public interface Filter {
-    double[][] applyFilter(double[][] F);
+    // Передаточная функция фильтра для спектра размера width x height в естественном порядке FFTW
+    // (нулевая частота в (0, 0), без fftshift), из общего кэша
+    TransferFunction getTransferFunction(int width, int height);
+
+    // Передаточная функция для фрагмента width x height изображения imageWidth x imageHeight
+    // (обработка по фрагментам): частоты фрагмента пересчитываются в частоты изображения. Общей реализации
+    // нет - по функции на сетке изображения ее пришлось бы строить целиком, поэтому каждый фильтр вычисляет
+    // ее сам (TransferFunction.forTile)
+    TransferFunction getTileTransferFunction(int width, int height, int imageWidth, int imageHeight);
+
+    // Умножение комплексного спектра (реальная и мнимая плоскости) на передаточную функцию на месте;
+    // возвращает сумму |F|^2 отфильтрованного спектра (по равенству Парсеваля - энергия результата,
+    // умноженная на число пикселей)
+    default double apply(ImagePlane re, ImagePlane im) {
+        return getTransferFunction(re.getWidth(), re.getHeight()).multiply(re, im);
+    }
+
+    // Умножение одной плоскости спектра на передаточную функцию на месте
+    default ImagePlane applyFilter(ImagePlane F) {
+        getTransferFunction(F.getWidth(), F.getHeight()).multiply(F);
+        return F;
+    }
+
+    // Адаптер для массивов в раскладке [width][height] (массив изменяется на месте)
+    default double[][] applyFilter(double[][] F) {
+        ImagePlane plane = applyFilter(ImagePlane.fromColumns(F));
+        for (int x = 0; x < F.length; x++) {
+            for (int y = 0; y < F[x].length; y++) {
+                F[x][y] = plane.get(x, y);
+            }
+        }
+        return F;
+    }
 }
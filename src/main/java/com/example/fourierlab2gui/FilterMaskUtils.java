@@ -1,38 +1,20 @@
 package com.example.fourierlab2gui;
 
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 
 public class FilterMaskUtils {
 
-    // Создание маски фильтра
+    // Создание маски фильтра (маска берется из общего кэша передаточных функций)
     public static double[][] createFilterMask(int width, int height, double D0, boolean isHighPass) {
-        // Инициализация двумерного массива для маски фильтра
-        double[][] mask = new double[width][height];
+        // Если это фильтр высоких частот и расстояние меньше D0, или это фильтр низких частот и расстояние больше D0,
+        // то значение маски равно 0, иначе - 1
+        TransferFunction mask = new IdealFilter(D0, isHighPass).getTransferFunction(width, height);
 
-        // Определение центра изображения
-        int centerX = width / 2;
-        int centerY = height / 2;
-
-        // Проход по всем пикселям изображения
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                // Вычисление расстояния от текущего пикселя до центра изображения
-                double distance = Math.sqrt(Math.pow(i - centerX, 2) + Math.pow(j - centerY, 2));
-
-                // Если это фильтр высоких частот и расстояние меньше D0, или это фильтр низких частот и расстояние больше D0,
-                // то устанавливаем значение маски в 0, иначе - в 1
-                if ((isHighPass && distance < D0) || (!isHighPass && distance > D0)) {
-                    mask[i][j] = 0;
-                } else {
-                    mask[i][j] = 1;
-                }
-            }
-        }
-
-        // Возвращаем маску фильтра
-        return mask;
+        // Возвращаем маску фильтра в раскладке [width][height]
+        return mask.toPlane().toColumns();
     }
 
     // Создание изображения из маски
@@ -64,7 +46,23 @@ public class FilterMaskUtils {
         // Возвращаем изображение
         return writableImage;
     }
-}
-
 
+    // Создание изображения из передаточной функции (строки записываются в изображение целиком)
+    public static WritableImage createImageFromMask(TransferFunction mask) {
+        int width = mask.getWidth();
+        int height = mask.getHeight();
+        WritableImage writableImage = new WritableImage(width, height);
+        PixelWriter pixelWriter = writableImage.getPixelWriter();
 
+        // Значения маски в [0, 1] переводятся в оттенки серого
+        int[] row = new int[width];
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                int gray = (int) Math.round(Math.min(1, Math.max(0, mask.get(i, j))) * 255);
+                row[i] = 0xFF000000 | (gray << 16) | (gray << 8) | gray;
+            }
+            pixelWriter.setPixels(0, j, width, 1, PixelFormat.getIntArgbInstance(), row, 0, width);
+        }
+        return writableImage;
+    }
+}
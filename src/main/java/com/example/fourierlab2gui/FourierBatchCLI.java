@@ -0,0 +1,541 @@
+package com.example.fourierlab2gui;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class FourierBatchCLI {
+    // Этапы конвейера в порядке обработки
+    private static final String[] STAGES = {"decode", "split", "forward", "filter", "inverse", "encode"};
+
+    // Параметры запуска
+    private final File inputDir;
+    private final File outputDir;
+    private final Filter filter;
+    private final String channel;
+    private final String format;
+    private final boolean normalize;
+    private final int queueCapacity;
+    private final int fftwThreads;
+    private final Map<String, Integer> workers;
+    // Точность буферов и планов FFTW
+    private final FFTWPlanCache.Precision precision;
+    // Размер фрагмента для обработки по частям (0 - изображение обрабатывается целиком в памяти)
+    private final int tileSize;
+    // Каталог временных файлов плоскостей при обработке по частям
+    private final Path scratchDir;
+
+    // Счетчики для итоговой статистики
+    private final AtomicInteger processed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicLong pixels = new AtomicLong();
+
+    private FourierBatchCLI(File inputDir, File outputDir, Filter filter, String channel,
+                            String format, boolean normalize, int queueCapacity, int fftwThreads,
+                            Map<String, Integer> workers, FFTWPlanCache.Precision precision, int tileSize,
+                            Path scratchDir) {
+        this.inputDir = inputDir;
+        this.outputDir = outputDir;
+        this.filter = filter;
+        this.channel = channel;
+        this.format = format;
+        this.normalize = normalize;
+        this.queueCapacity = queueCapacity;
+        this.fftwThreads = fftwThreads;
+        this.workers = workers;
+        this.precision = precision;
+        this.tileSize = tileSize;
+        this.scratchDir = scratchDir;
+    }
+
+    public static void main(String[] args) {
+        // Без графической среды ImageIO работает только в headless-режиме
+        System.setProperty("java.awt.headless", "true");
+        FourierBatchCLI cli;
+        try {
+            cli = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+            return;
+        }
+        try {
+            // Загрузка сохраненной wisdom FFTW, чтобы не повторять дорогое планирование
+            FFTWPlanner.loadWisdom();
+            int failures = cli.run();
+            System.exit(failures == 0 ? 0 : 1);
+        } catch (IOException | InterruptedException e) {
+            System.err.println("Ошибка: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Разбор аргументов командной строки
+    private static FourierBatchCLI parse(String[] args) {
+        List<String> positional = new ArrayList<>();
+        String filterSpec = "none";
+        String channel = "RGB";
+        String format = "png";
+        String scale = "normalize";
+        int queueCapacity = 4;
+        int fftwThreads = 1;
+        String workerSpec = "";
+        String precision = "double";
+        int tileSize = 0;
+        String scratch = System.getProperty("java.io.tmpdir");
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                positional.add(arg);
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Не указано значение параметра " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--filter":
+                    filterSpec = value;
+                    break;
+                case "--channels":
+                    channel = value.toUpperCase(Locale.ROOT);
+                    break;
+                case "--format":
+                    format = value.toLowerCase(Locale.ROOT);
+                    break;
+                case "--scale":
+                    scale = value.toLowerCase(Locale.ROOT);
+                    break;
+                case "--queue":
+                    queueCapacity = parsePositive(arg, value);
+                    break;
+                case "--fftw-threads":
+                    fftwThreads = parsePositive(arg, value);
+                    break;
+                case "--workers":
+                    workerSpec = value;
+                    break;
+                case "--precision":
+                    precision = value.toLowerCase(Locale.ROOT);
+                    break;
+                case "--tile":
+                    tileSize = parsePositive(arg, value);
+                    break;
+                case "--scratch":
+                    scratch = value;
+                    break;
+                case "--planning":
+                    try {
+                        FFTWPlanner.setMode(FFTWPlanner.Mode.valueOf(value.toUpperCase(Locale.ROOT)));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Неизвестный режим планирования: " + value);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Неизвестный параметр: " + arg);
+            }
+        }
+        if (positional.size() != 2) {
+            throw new IllegalArgumentException("Нужно указать входной и выходной каталоги");
+        }
+
+        Filter filter = parseFilter(filterSpec);
+        if (!Arrays.asList("R", "G", "B", "RGB").contains(channel)) {
+            throw new IllegalArgumentException("Неизвестный канал: " + channel);
+        }
+        if (!scale.equals("normalize") && !scale.equals("clamp")) {
+            throw new IllegalArgumentException("Неизвестный режим масштабирования: " + scale);
+        }
+        if (!precision.equals("double") && !precision.equals("float")) {
+            throw new IllegalArgumentException("Неизвестная точность: " + precision);
+        }
+        if (tileSize > 0 && tileSize < 16) {
+            throw new IllegalArgumentException("Размер фрагмента должен быть не меньше 16: " + tileSize);
+        }
+        // Формат ppm записывается потоком только при обработке по частям
+        if (!(tileSize > 0 && format.equals("ppm")) && !ImageIO.getImageWritersByFormatName(format).hasNext()) {
+            throw new IllegalArgumentException("Неподдерживаемый формат вывода: " + format);
+        }
+
+        return new FourierBatchCLI(new File(positional.get(0)), new File(positional.get(1)), filter, channel, format, scale.equals("normalize"), queueCapacity, fftwThreads, parseWorkers(workerSpec),
+                precision.equals("float") ? FFTWPlanCache.Precision.SINGLE : FFTWPlanCache.Precision.DOUBLE,
+                tileSize, Paths.get(scratch));
+    }
+
+    // Фильтр задается как тип:D0, например highpass:30 или gaussian:20
+    private static Filter parseFilter(String spec) {
+        String[] parts = spec.toLowerCase(Locale.ROOT).split(":");
+        if (parts[0].equals("none")) {
+            return null;
+        }
+        boolean butterworth = parts[0].startsWith("butterworth");
+        if (parts.length != (butterworth ? 3 : 2)) {
+            throw new IllegalArgumentException("Для фильтра нужна частота среза"
+                    + (butterworth ? " и порядок: " : ": ") + spec);
+        }
+        double D0;
+        int order = 0;
+        try {
+            D0 = Double.parseDouble(parts[1]);
+            if (butterworth) {
+                order = Integer.parseInt(parts[2]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Неверные параметры фильтра: " + spec);
+        }
+        switch (parts[0]) {
+            case "highpass":
+                return new IdealFilter(D0, true);
+            case "lowpass":
+                return new IdealFilter(D0, false);
+            case "ramp":
+                return new HighPassFilter(D0);
+            case "gaussian":
+                return new GaussianLowPassFilter(D0);
+            case "butterworth-lowpass":
+                return new ButterworthFilter(D0, order, false);
+            case "butterworth-highpass":
+                return new ButterworthFilter(D0, order, true);
+            default:
+                throw new IllegalArgumentException("Неизвестный фильтр: " + spec);
+        }
+    }
+
+    // Разбор количества потоков по этапам: decode=2,forward=4,...; по умолчанию вычислительным
+    // этапам отдаются все ядра, а ввод-вывод и разбиение на каналы выполняются меньшим числом потоков
+    private static Map<String, Integer> parseWorkers(String spec) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Map<String, Integer> workers = new LinkedHashMap<>();
+        workers.put("decode", Math.max(1, cores / 2));
+        workers.put("split", 1);
+        workers.put("forward", cores);
+        workers.put("filter", Math.max(1, cores / 2));
+        workers.put("inverse", cores);
+        workers.put("encode", Math.max(1, cores / 2));
+        if (!spec.isEmpty()) {
+            for (String item : spec.split(",")) {
+                String[] parts = item.split("=");
+                if (parts.length != 2 || !workers.containsKey(parts[0].trim())) {
+                    throw new IllegalArgumentException("Неверное описание потоков: " + item);
+                }
+                workers.put(parts[0].trim(), parsePositive("--workers", parts[1].trim()));
+            }
+        }
+        return workers;
+    }
+
+    private static int parsePositive(String name, String value) {
+        try {
+            int result = Integer.parseInt(value);
+            if (result < 1) {
+                throw new NumberFormatException();
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть положительным числом: " + value);
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Использование: FourierBatchCLI <входной каталог> <выходной каталог> [параметры]");
+        System.err.println("  --filter none|highpass:D0|lowpass:D0|ramp:D0|gaussian:D0|butterworth-lowpass:D0:n|"
+                + "butterworth-highpass:D0:n  фильтр и частота среза (none)");
+        System.err.println("  --channels RGB|R|G|B                    обрабатываемые каналы (RGB)");
+        System.err.println("  --format png|jpg|bmp                    формат результата (png)");
+        System.err.println("  --scale normalize|clamp                 приведение к 0..255 (normalize)");
+        System.err.println("  --workers decode=N,split=N,forward=N,filter=N,inverse=N,encode=N");
+        System.err.println("  --queue N                               емкость очереди между этапами (4)");
+        System.err.println("  --fftw-threads N                        потоки FFTW на одно изображение (1)");
+        System.err.println("  --planning estimate|measure|patient|exhaustive  режим планирования FFTW (estimate)");
+        System.err.println("  --precision double|float                точность FFTW: float вдвое меньше памяти (double)");
+        System.err.println("  --tile N                                обработка по фрагментам N x N через временные файлы"
+                + " (для изображений, не помещающихся в память; потоков - filter из --workers)");
+        System.err.println("                                          (JPEG больше четверти кучи декодируется заново"
+                + " для каждой полосы - время растет квадратично; используйте PPM или PNG)");
+        System.err.println("  --scratch DIR                           каталог временных файлов для --tile (java.io.tmpdir)");
+        System.err.println("  --format ppm                            при --tile: потоковая запись без сборки в памяти");
+    }
+
+    // Обработка всех изображений каталога; возвращает количество ошибок
+    private int run() throws IOException, InterruptedException {
+        File[] files = inputDir.listFiles(File::isFile);
+        if (files == null) {
+            throw new IOException("Не удалось прочитать каталог " + inputDir);
+        }
+        Arrays.sort(files);
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Не удалось создать каталог " + outputDir);
+        }
+        if (tileSize > 0) {
+            return runTiled(files);
+        }
+
+        // Очереди между этапами ограничены, чтобы число изображений в памяти не росло
+        List<BlockingQueue<Job>> queues = new ArrayList<>();
+        for (int i = 0; i <= STAGES.length; i++) {
+            queues.add(new ArrayBlockingQueue<>(i == 0 ? Math.max(1, files.length + workers.get("decode"))
+                    : queueCapacity));
+        }
+        for (File file : files) {
+            queues.get(0).add(new Job(file));
+        }
+
+        Stage[] stages = {
+                new Stage("decode", this::decode),
+                new Stage("split", this::split),
+                new Stage("forward", this::forward),
+                new Stage("filter", this::filter),
+                new Stage("inverse", this::inverse),
+                new Stage("encode", this::encode)
+        };
+
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < stages.length; i++) {
+            threads.addAll(stages[i].start(queues.get(i), i + 1 < stages.length ? queues.get(i + 1) : null,
+                    workers.get(STAGES[i])));
+        }
+        // Сигнал окончания входных данных для всех потоков первого этапа
+        for (int i = 0; i < workers.get("decode"); i++) {
+            queues.get(0).add(Job.END);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Итоговая статистика
+        int count = processed.get();
+        System.out.printf(Locale.ROOT, "Обработано: %d, ошибок: %d, время: %.2f с%n", count, failed.get(), seconds);
+        System.out.printf(Locale.ROOT, "Производительность: %.2f изобр./с, %.2f Мпикс/с%n",
+                count / seconds, pixels.get() / 1e6 / seconds);
+        System.out.printf(Locale.ROOT, "Кэш передаточных функций: попаданий %d, промахов %d%n",
+                TransferFunction.getCacheHits(), TransferFunction.getCacheMisses());
+        for (Stage stage : stages) {
+            System.out.printf(Locale.ROOT, "  %-8s потоков: %d, занятость: %.2f с%n",
+                    stage.name, workers.get(stage.name), stage.busyNanos.get() / 1e9);
+        }
+        return failed.get();
+    }
+
+    // Обработка по фрагментам: файлы обрабатываются по очереди, плоскости хранятся во временных файлах,
+    // отображенных в память, а в куче находятся только фрагменты (по одному на поток)
+    private int runTiled(File[] files) throws IOException, InterruptedException {
+        int[] channels = channel.equals("RGB") ? new int[]{0, 1, 2} : new int[]{"RGB".indexOf(channel)};
+        int threads = workers.get("filter");
+        long start = System.nanoTime();
+        for (File file : files) {
+            MappedPlane[] source = null;
+            MappedPlane[] result = null;
+            try {
+                source = StripImageIO.read(file, channels, scratchDir);
+                int width = source[0].getWidth();
+                int height = source[0].getHeight();
+                if (filter == null) {
+                    result = source;
+                    source = null;
+                } else {
+                    TiledFilter tiled = new TiledFilter(filter, width, height, tileSize,
+                            TiledFilter.DEFAULT_TOLERANCE, precision);
+                    System.out.printf(Locale.ROOT, "%s: %dx%d, фрагмент %dx%d, перекрытие %d/%d, "
+                                    + "энергия ядра за перекрытием %.2e%n", file.getName(), width, height,
+                            tiled.getTileWidth(), tiled.getTileHeight(), tiled.getMarginX(), tiled.getMarginY(),
+                            tiled.getTailEnergy());
+                    result = StripImageIO.createPlanes(scratchDir, channels.length, width, height);
+                    tiled.apply(source, result, threads);
+                    StripImageIO.close(source);
+                    source = null;
+                }
+                StripImageIO.write(new File(outputDir, outputName(file)), format, result, channels, normalize);
+                processed.incrementAndGet();
+                pixels.addAndGet((long) width * height);
+            } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                failed.incrementAndGet();
+                System.err.println(file.getName() + ": " + e.getMessage());
+            } finally {
+                if (source != null) {
+                    StripImageIO.close(source);
+                }
+                if (result != null) {
+                    StripImageIO.close(result);
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int count = processed.get();
+        System.out.printf(Locale.ROOT, "Обработано: %d, ошибок: %d, время: %.2f с%n", count, failed.get(), seconds);
+        System.out.printf(Locale.ROOT, "Производительность: %.2f изобр./с, %.2f Мпикс/с%n",
+                count / seconds, pixels.get() / 1e6 / seconds);
+        return failed.get();
+    }
+
+    // Имя выходного файла: имя входного с расширением формата результата
+    private String outputName(File input) {
+        String name = input.getName();
+        int dot = name.lastIndexOf('.');
+        return (dot > 0 ? name.substring(0, dot) : name) + "." + format;
+    }
+
+    // Этап 1: чтение и декодирование файла
+    private void decode(Job job) throws IOException {
+        job.image = ImageIO.read(job.input);
+        if (job.image == null) {
+            throw new IOException("Неподдерживаемый формат файла");
+        }
+    }
+
+    // Этап 2: разбиение на выбранные каналы прямо во входной буфер FFTW (без промежуточных плоскостей)
+    private void split(Job job) {
+        if (channel.equals("RGB")) {
+            job.channels = new int[]{0, 1, 2};
+        } else {
+            job.channels = new int[]{"RGB".indexOf(channel)};
+        }
+        job.width = job.image.getWidth();
+        job.height = job.image.getHeight();
+        job.fft = new BatchFFT2D(job.channels.length, job.height, job.width, true, fftwThreads, precision);
+        job.fft.setImageData(job.image, job.channels);
+        job.image = null;
+    }
+
+    // Этап 3: прямое преобразование Фурье всех каналов одним пакетным планом
+    private void forward(Job job) {
+        job.fft.forwardTransform();
+    }
+
+    // Этап 4: фильтрация спектра (общий фильтр для всех каналов, передаточная функция из кэша)
+    private void filter(Job job) {
+        if (filter != null) {
+            job.fft.applyFilter(filter);
+        }
+    }
+
+    // Этап 5: обратное преобразование (результат остается в буфере FFTW до записи)
+    private void inverse(Job job) {
+        job.fft.inverseTransform();
+    }
+
+    // Этап 6: формирование изображения и запись в выходной каталог
+    private void encode(Job job) throws IOException {
+        // Изображение формируется прямо из буфера FFTW, после чего буферы освобождаются
+        BufferedImage output = job.fft.getImage(job.channels, normalize);
+        job.release();
+        File outputFile = new File(outputDir, outputName(job.input));
+        if (!ImageIO.write(output, format, outputFile)) {
+            throw new IOException("Не удалось записать " + outputFile);
+        }
+        processed.incrementAndGet();
+        pixels.addAndGet((long) job.width * job.height);
+    }
+
+    // Задание конвейера: одно изображение и промежуточные результаты его обработки
+    private static final class Job {
+        // Маркер окончания входных данных
+        private static final Job END = new Job(null);
+
+        private final File input;
+        private BufferedImage image;
+        private int width;
+        private int height;
+        private int[] channels;
+        private BatchFFT2D fft;
+
+        private Job(File input) {
+            this.input = input;
+        }
+
+        // Освобождение буферов FFTW
+        private void release() {
+            if (fft != null) {
+                fft.cleanup();
+                fft = null;
+            }
+        }
+    }
+
+    // Обработка одного задания на этапе
+    private interface StageTask {
+        void process(Job job) throws Exception;
+    }
+
+    // Этап конвейера: потоки берут задания из входной очереди и передают в выходную
+    private final class Stage {
+        private final String name;
+        private final StageTask task;
+        // Суммарное время работы потоков этапа (без ожидания в очередях)
+        private final AtomicLong busyNanos = new AtomicLong();
+
+        private Stage(String name, StageTask task) {
+            this.name = name;
+            this.task = task;
+        }
+
+        private List<Thread> start(BlockingQueue<Job> input, BlockingQueue<Job> output, int count) {
+            // Последний завершившийся поток передает маркеры окончания всем потокам следующего этапа
+            AtomicInteger running = new AtomicInteger(count);
+            int next = output == null ? 0 : workersAfter(name);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        Job job;
+                        while ((job = input.take()) != Job.END) {
+                            long begin = System.nanoTime();
+                            try {
+                                task.process(job);
+                            } catch (Throwable e) {
+                                // Любая ошибка задания (в том числе UnsatisfiedLinkError или ошибка инициализации
+                                // классов FFTW) учитывается как отказ, поток продолжает работу
+                                job.release();
+                                failed.incrementAndGet();
+                                System.err.println(job.input.getName() + " (" + name + "): " + e.getMessage());
+                                continue;
+                            } finally {
+                                busyNanos.addAndGet(System.nanoTime() - begin);
+                            }
+                            if (output != null) {
+                                output.put(job);
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        // Маркеры передаются и при аварийном завершении потока, иначе следующий этап
+                        // ждал бы в take() бесконечно
+                        if (running.decrementAndGet() == 0 && output != null) {
+                            try {
+                                for (int j = 0; j < next; j++) {
+                                    output.put(Job.END);
+                                }
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    }
+                }, "fourier-" + name + "-" + i);
+                threads.add(thread);
+                thread.start();
+            }
+            return threads;
+        }
+
+        private int workersAfter(String stage) {
+            return workers.get(STAGES[Arrays.asList(STAGES).indexOf(stage) + 1]);
+        }
+    }
+}
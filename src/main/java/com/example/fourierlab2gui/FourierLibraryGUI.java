@@ -14,6 +14,7 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 
 import static com.example.fourierlab2gui.FilterMaskUtils.createImageFromMask;
 
@@ -36,12 +37,20 @@ public class FourierLibraryGUI extends Application {
     // Создание кнопок для загрузки изображения и применения преобразования Фурье
     private Button loadButton = new Button("Загрузить");
     private Button applyButton = new Button("Применить");
-
-    // Создание переменных для хранения данных изображения
+    private Button cancelButton = new Button("Отмена");
+    // Запись результатов в файлы JPEG после каждого выполнения (по умолчанию только по кнопке "Скачать")
+    private CheckBox exportCheckBox = new CheckBox("Сохранять результаты в файлы");
+
+    // Индикатор и описание хода фоновых вычислений
+    private ProgressBar progressBar = new ProgressBar(0);
+    private Label statusLabel = new Label();
+    // Текущая фоновая задача преобразования (null, если вычисления не выполняются)
+    private ProgressTask<FourierImages> currentTask;
+    // Исходный спектр загруженного изображения (используется только в потоке фоновых задач)
+    private SpectrumCache spectrumCache;
+
+    // Загруженное изображение (каналы декодируются прямо во входной буфер FFTW при преобразовании)
     private BufferedImage image;
-    private double[][] redData;
-    private double[][] greenData;
-    private double[][] blueData;
     Label energyLabel = new Label();
 
     // Создание выпадающего списка для выбора фильтра и текстового поля для ввода частоты среза
@@ -81,12 +90,8 @@ public class FourierLibraryGUI extends Application {
             File file = fileChooser.showSaveDialog(null);
             if (file != null) {
                 try {
-                    // Получение расширения файла
-                    String ext =
-                            file.getName().substring(file.getName().lastIndexOf('.') + 1);
-                    // Сохранение изображения в файл
-                    ImageIO.write(
-                            SwingFXUtils.fromFXImage(imageView.getImage(), null), ext, file);
+                    // Сохранение отображаемого изображения из памяти (формат по расширению файла)
+                    ResultImages.save(imageView.getImage(), file);
                 } catch (IOException ex) {
                     System.out.println(ex.getMessage());
                 }
@@ -110,6 +115,9 @@ public class FourierLibraryGUI extends Application {
 
     @Override
     public void start(Stage primaryStage) {
+        // Загрузка сохраненной wisdom FFTW, чтобы не повторять дорогое планирование
+        FFTWPlanner.loadWisdom();
+
         // Создание группы переключателей для выбора канала изображения
         ToggleGroup group = new ToggleGroup();
         redButton.setToggleGroup(group);
@@ -164,16 +172,14 @@ public class FourierLibraryGUI extends Application {
 
         // Установка обработчиков событий для кнопок загрузки изображения и применения преобразования Фурье
         loadButton.setOnAction(event -> loadImage());
-        applyButton.setOnAction(e -> {
-            long startTime = System.currentTimeMillis();
-            // Выполнение преобразования Фурье
-            applyFourierTransform();
-
-            // Вывод времени выполнения преобразования
-            long endTime = System.currentTimeMillis();
-            long duration = (endTime - startTime);
-            System.out.println("Время выполнения: " + duration + " милисекунд");
+        // Преобразование выполняется в фоновой задаче, поток JavaFX остается свободным
+        applyButton.setOnAction(e -> applyFourierTransform());
+        cancelButton.setOnAction(e -> {
+            if (currentTask != null) {
+                currentTask.cancel();
+            }
         });
+        cancelButton.setDisable(true);
 
         // Создание нижней панели с изображениями
         HBox bottomBox = new HBox(10);
@@ -181,7 +187,7 @@ public class FourierLibraryGUI extends Application {
 
         // Создание панели управления
         VBox controlPanel = new VBox();
-        controlPanel.getChildren().addAll(loadButton, applyButton, redButton, greenButton, blueButton, rgbButton, filterComboBox, cutoffFrequencyField, energyLabel);
+        controlPanel.getChildren().addAll(loadButton, applyButton, cancelButton, redButton, greenButton, blueButton, rgbButton, filterComboBox, cutoffFrequencyField, exportCheckBox, energyLabel, progressBar, statusLabel);
 
         // Создание вертикальной панели с изображениями
         VBox vBoxImages = new VBox(10);
@@ -208,265 +214,275 @@ public class FourierLibraryGUI extends Application {
 
                 // Загрузка изображения
                 image = ImageIO.read(file);
-                int height = image.getHeight();
-                int width = image.getWidth();
-
-                // Инициализация массивов для хранения данных каналов изображения
-                redData = new double[height][width];
-                greenData = new double[height][width];
-                blueData = new double[height][width];
-                for (int i = 0; i < height; i++) {
-                    for (int j = 0; j < width; j++) {
-                        // Получение RGB значений каждого пикселя
-                        int rgb = image.getRGB(j, i);
-                        redData[i][j] = ((rgb >> 16) & 0xFF);
-                        greenData[i][j] = ((rgb >> 8) & 0xFF);
-                        blueData[i][j] = (rgb & 0xFF);
-                    }
-                }
 
                 // Преобразование BufferedImage в Image и установка его в ImageView
                 Image fxImage = SwingFXUtils.toFXImage(image, null);
                 originalImageView.setImage(fxImage);
+
+                // Спектр предыдущего изображения больше не нужен: освобождаем его в потоке фоновых задач
+                // (после завершения текущей задачи, если она выполняется)
+                new ProgressTask<Void>() {
+                    @Override
+                    protected Void call() {
+                        releaseSpectrumCache();
+                        return null;
+                    }
+                }.start();
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
     }
 
-    private double calculateEnergy(double[][] data) {
-        double energy = 0.0;
-        // Проходим по всем элементам данных
-        for (double[] row : data) {
-            for (double value : row) {
-                // Вычисляем энергию как сумму квадратов значений
-                energy += value * value;
-            }
-        }
-        return energy;
-    }
-
-
     private void applyFourierTransform() {
-        try {
-            // Определение массивов для хранения данных о цветах и соответствующих им
-            // данных изображения
-            String[] colors = {"red", "green", "blue"};
-            double[][][] data = {redData, greenData, blueData};
-
-            // Создание массивов для хранения данных о спектрах и обратных
-            // преобразованиях
-            TransformData[] filteredSpectrumData = new TransformData[3];
-            TransformData[] filteredInverseData = new TransformData[3];
-            TransformData[] spectrumData = new TransformData[3];
-            TransformData[] inverseData = new TransformData[3];
-
-            // Инициализация переменных для хранения энергии изображения
-            double originalEnergy = 0.0;
-            double filteredEnergy = 0.0;
-
-            // Проходим по всем цветам
-            for (int i = 0; i < colors.length; i++) {
-                String color = colors[i];
-                // Проверяем, выбран ли текущий цвет
-                if ((color.equals("red") && redButton.isSelected())
-                        || (color.equals("green") && greenButton.isSelected())
-                        || (color.equals("blue") && blueButton.isSelected())
-                        || rgbButton.isSelected()) {
-                    // Создаем объект FFT2D и устанавливаем данные изображения
-                    FFT2D fft = new FFT2D(data[i].length, data[i][0].length);
-                    fft.setImageData(data[i]);
-
-                    // Выполняем прямое преобразование Фурье
-                    fft.forwardTransform();
-
-                    // Получаем спектр и обратное преобразование
-                    spectrumData[i] = fft.getSpectrum();
-                    inverseData[i] = fft.getInverseTransform();
-
-                    // Получаем выбранный фильтр и частоту среза
-                    String selectedFilter = filterComboBox.getValue();
-                    double cutoffFrequency =
-                            Double.parseDouble(cutoffFrequencyField.getText());
-
-                    // Применяем выбранный фильтр
-                    if (selectedFilter.equals("Идеальный фильтр высоких частот")) {
-                        fft.applyHighPassFilter(cutoffFrequency);
-                    } else if (selectedFilter.equals("Фильтр Гаусса низких частот")) {
-                        fft.applyGaussianLowPassFilter(cutoffFrequency);
-                    }
-
-                    // Получаем отфильтрованный спектр и обратное преобразование
-                    filteredSpectrumData[i] = fft.getSpectrum();
-                    filteredInverseData[i] = fft.getInverseTransform();
+        if (image == null || currentTask != null) {
+            return;
+        }
+        // Определение массивов для хранения данных о цветах и соответствующих им
+        // данных изображения
+        String[] colors = {"red", "green", "blue"};
+
+        // Получаем выбранный фильтр и частоту среза (элементы управления читаются в потоке JavaFX)
+        String selectedFilter = filterComboBox.getValue();
+        double cutoffFrequency =
+                Double.parseDouble(cutoffFrequencyField.getText());
+        Filter filter = null;
+        if (selectedFilter.equals("Идеальный фильтр высоких частот")) {
+            filter = new IdealFilter(cutoffFrequency, true);
+        } else if (selectedFilter.equals("Фильтр Гаусса низких частот")) {
+            filter = new GaussianLowPassFilter(cutoffFrequency);
+        }
 
-                    // Вычисляем энергию оригинального и отфильтрованного изображения
-                    double originalEnergyChannel = calculateEnergy(data[i]);
-                    double filteredEnergyChannel = calculateEnergy(fft.getImageData());
+        // Определяем выбранные цвета и их номера в пакете преобразований
+        int[] channels = new int[colors.length];
+        int selectedCount = 0;
+        for (int i = 0; i < colors.length; i++) {
+            String color = colors[i];
+            if ((color.equals("red") && redButton.isSelected())
+                    || (color.equals("green") && greenButton.isSelected())
+                    || (color.equals("blue") && blueButton.isSelected())
+                    || rgbButton.isSelected()) {
+                channels[selectedCount++] = i;
+            }
+        }
+        if (selectedCount == 0) {
+            return;
+        }
+        int count = selectedCount;
+        boolean rgb = rgbButton.isSelected();
+        boolean export = exportCheckBox.isSelected();
+        Filter selected = filter;
+        BufferedImage source = image;
+
+        long startTime = System.currentTimeMillis();
+        ProgressTask<FourierImages> task = new ProgressTask<>() {
+            @Override
+            protected FourierImages call() throws IOException {
+                return computeImages(this, source, colors, channels, count, selected, rgb, export);
+            }
+        };
+        progressBar.progressProperty().bind(task.progressProperty());
+        statusLabel.textProperty().bind(task.messageProperty());
+        applyButton.setDisable(true);
+        cancelButton.setDisable(false);
+
+        // Результаты публикуются одним обновлением интерфейса после завершения всех этапов
+        task.setOnSucceeded(e -> {
+            finishTask();
+            FourierImages images = task.getValue();
+            spectrumImageView.setImage(images.spectrum);
+            inverseImageView.setImage(images.inverse);
+            filteredSpectrumImageView.setImage(images.filteredSpectrum);
+            filteredFourierImageView.setImage(images.filteredInverse);
+            energyLabel.setText(images.energy);
+            statusLabel.setText("Готово");
 
-                    // Обновляем общую энергию
-                    originalEnergy += originalEnergyChannel;
-                    filteredEnergy += filteredEnergyChannel;
+            // Вывод времени выполнения преобразования
+            long duration = System.currentTimeMillis() - startTime;
+            System.out.println("Время выполнения: " + duration + " милисекунд");
+        });
+        task.setOnCancelled(e -> {
+            finishTask();
+            statusLabel.setText("Отменено");
+        });
+        task.setOnFailed(e -> {
+            finishTask();
+            statusLabel.setText("Ошибка: " + task.getException().getMessage());
+            task.getException().printStackTrace();
+        });
+        currentTask = task;
+        task.start();
+    }
 
-                    // Очищаем ресурсы, связанные с FFTW
-                    fft.cleanup();
-                }
-            }
+    // Возврат элементов управления в исходное состояние после завершения фоновой задачи
+    private void finishTask() {
+        progressBar.progressProperty().unbind();
+        statusLabel.textProperty().unbind();
+        applyButton.setDisable(false);
+        cancelButton.setDisable(true);
+        currentTask = null;
+    }
 
-            // Если выбран RGB-режим, сохраняем и отображаем RGB-изображения
-            if (rgbButton.isSelected()) {
-                BufferedImage filteredSpectrumImage = saveRGBImage(
-                        filteredSpectrumData[0].getData(), filteredSpectrumData[1].getData(),
-                        filteredSpectrumData[2].getData(), "rgb_filtered_spectrum.jpg");
-                BufferedImage filteredInverseImage = saveRGBImage(
-                        filteredInverseData[0].getData(), filteredInverseData[1].getData(),
-                        filteredInverseData[2].getData(), "rgb_filtered_inverse.jpg");
-
-                BufferedImage spectrumImage =
-                        saveRGBImage(spectrumData[0].getData(), spectrumData[1].getData(),
-                                spectrumData[2].getData(), "rgb_spectrum.jpg");
-                BufferedImage inverseImage =
-                        saveRGBImage(inverseData[0].getData(), inverseData[1].getData(),
-                                inverseData[2].getData(), "rgb_inverse.jpg");
-
-                // Устанавливаем изображения в ImageView
-                filteredSpectrumImageView.setImage(
-                        SwingFXUtils.toFXImage(filteredSpectrumImage, null));
-                filteredFourierImageView.setImage(
-                        SwingFXUtils.toFXImage(filteredInverseImage, null));
-
-                spectrumImageView.setImage(SwingFXUtils.toFXImage(spectrumImage, null));
-                inverseImageView.setImage(SwingFXUtils.toFXImage(inverseImage, null));
-            } else {
-                // Если выбран один из цветов, сохраняем и отображаем соответствующие
-                // изображения
-                for (int i = 0; i < colors.length; i++) {
-                    String color = colors[i];
-                    int shift = 0;
-                    if (color.equals("red")) {
-                        shift = 16;
-                    } else if (color.equals("green")) {
-                        shift = 8;
-                    } else if (color.equals("blue")) {
-                        shift = 0;
-                    }
-                    if ((color.equals("red") && redButton.isSelected())
-                            || (color.equals("green") && greenButton.isSelected())
-                            || (color.equals("blue") && blueButton.isSelected())) {
-                        BufferedImage filteredSpectrumImage =
-                                saveImage(filteredSpectrumData[i].getData(),
-                                        color + "_filtered_spectrum", shift);
-                        BufferedImage filteredInverseImage =
-                                saveImage(filteredInverseData[i].getData(),
-                                        color + "_filtered_inverse", shift);
-
-                        BufferedImage spectrumImage =
-                                saveImage(spectrumData[i].getData(), color + "_spectrum", shift);
-                        BufferedImage inverseImage =
-                                saveImage(inverseData[i].getData(), color + "_inverse", shift);
-
-                        // Устанавливаем изображения в ImageView
-                        filteredSpectrumImageView.setImage(
-                                SwingFXUtils.toFXImage(filteredSpectrumImage, null));
-                        filteredFourierImageView.setImage(
-                                SwingFXUtils.toFXImage(filteredInverseImage, null));
-
-                        spectrumImageView.setImage(
-                                SwingFXUtils.toFXImage(spectrumImage, null));
-                        inverseImageView.setImage(SwingFXUtils.toFXImage(inverseImage, null));
-                    }
-                }
-            }
-            // Вычисляем и отображаем процент энергии после фильтрации
-            double energyPercentage = (filteredEnergy / originalEnergy) * 100;
-            energyLabel.setText(
-                    String.format("Energy after filtering: %.4f%%", energyPercentage));
+    // Фоновые вычисления: преобразования, фильтрация, энергия и изображения результатов в памяти
+    // (файлы записываются, только если включен экспорт); ход выполнения сообщается по этапам и каналам,
+    // отмена проверяется между этапами
+    private FourierImages computeImages(ProgressTask<?> task, BufferedImage source, String[] colors, int[] channels, int count, Filter filter, boolean rgb, boolean export)
+            throws IOException {
+        // Этапы: прямое преобразование, фильтр и два обратных преобразования (по 1),
+        // построение четырех изображений (по 4 на канал), запись четырех изображений
+        task.setTotalWork(4 + 4L * count + (export ? 4 : 0));
+
+        // Массив для хранения энергии каждого канала после фильтрации
+        double[] filteredEnergyChannels = new double[3];
+
+        // Прямое преобразование выполняется один раз для загруженного изображения и набора каналов;
+        // при изменении фильтра или частоты среза используется сохраненный спектр
+        SpectrumCache cache = spectrumCache;
+        if (cache == null || !cache.matches(source, channels, count)) {
+            releaseSpectrumCache();
+            cache = computeSpectrumCache(task, source, channels, count);
+            spectrumCache = cache;
+        } else {
+            // Прямое преобразование, исходные спектры и результаты уже готовы
+            task.worked(2 + 2L * count);
+        }
+        double[] originalEnergyChannels = cache.originalEnergy;
+        BatchFFT2D fft = cache.fft;
+
+        // Фильтр применяется к копии исходного спектра (копирование в памяти FFTW одной операцией)
+        task.stage("Фильтрация");
+        fft.restoreSpectrum();
+        if (filter != null) {
+            fft.applyFilter(filter);
+        }
+        // Энергия отфильтрованного изображения по спектру (равенство Парсеваля): накапливается при
+        // фильтрации, поэтому обратное преобразование и копирование результата для нее не нужны
+        for (int b = 0; b < count; b++) {
+            filteredEnergyChannels[channels[b]] = filter != null ? fft.getFilteredEnergy(b)
+                    : fft.getSpectrumEnergy(b);
+        }
+        task.worked(1);
+
+        // Изображения для ImageView строятся в памяти в фоновом потоке прямо из буферов FFTW
+        // (в RGB-режиме в пакете все каналы, иначе только выбранный)
+        FourierImages images = new FourierImages();
+        images.spectrum = cache.spectrum;
+        images.inverse = cache.inverse;
+        task.stage("Отфильтрованный спектр");
+        images.filteredSpectrum = ResultImages.fromView(fft, channels, BatchFFT2D.View.LOG_MAGNITUDE);
+        task.worked(count);
+        task.stage("Обратное преобразование отфильтрованного спектра");
+        fft.inverseTransform();
+        task.worked(1);
+        images.filteredInverse = ResultImages.fromView(fft, channels, BatchFFT2D.View.REAL);
+        task.worked(count);
+
+        // Вычисляем общую энергию
+        double originalEnergy = 0.0;
+        double filteredEnergy = 0.0;
+        for (int i = 0; i < colors.length; i++) {
+            originalEnergy += originalEnergyChannels[i];
+            filteredEnergy += filteredEnergyChannels[i];
+        }
 
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (export) {
+            task.stage("Сохранение изображений");
+            String prefix = rgb ? "rgb" : colors[channels[0]];
+            ResultImages.save(images.filteredSpectrum, new File(prefix + "_filtered_spectrum.jpg"));
+            task.worked(1);
+            ResultImages.save(images.filteredInverse, new File(prefix + "_filtered_inverse.jpg"));
+            task.worked(1);
+            ResultImages.save(images.spectrum, new File(prefix + "_spectrum.jpg"));
+            task.worked(1);
+            ResultImages.save(images.inverse, new File(prefix + "_inverse.jpg"));
+            task.worked(1);
         }
+        // Вычисляем процент энергии после фильтрации
+        double energyPercentage = (filteredEnergy / originalEnergy) * 100;
+        images.energy = String.format("Energy after filtering: %.4f%%", energyPercentage);
+        return images;
     }
 
-    private BufferedImage saveRGBImage(double[][] redData, double[][] greenData,
-                                       double[][] blueData, String filename) throws IOException {
-        // Определение размеров изображения
-        int height = redData.length;
-        int width = redData[0].length;
-        // Создание нового изображения с заданными размерами и типом INT_RGB
-        BufferedImage image =
-                new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-        // Инициализация переменных для хранения минимальных и максимальных значений
-        // каждого канала
-        double minRed = Double.MAX_VALUE, maxRed = Double.MIN_VALUE;
-        double minGreen = Double.MAX_VALUE, maxGreen = Double.MIN_VALUE;
-        double minBlue = Double.MAX_VALUE, maxBlue = Double.MIN_VALUE;
-
-        // Поиск минимальных и максимальных значений каждого канала
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                minRed = Math.min(minRed, redData[i][j]);
-                maxRed = Math.max(maxRed, redData[i][j]);
-                minGreen = Math.min(minGreen, greenData[i][j]);
-                maxGreen = Math.max(maxGreen, greenData[i][j]);
-                minBlue = Math.min(minBlue, blueData[i][j]);
-                maxBlue = Math.max(maxBlue, blueData[i][j]);
+    // Прямое преобразование выбранных каналов, исходные спектр и результат обратного преобразования
+    // и энергия каналов; спектр сохраняется для последующих запусков с другими фильтрами
+    private SpectrumCache computeSpectrumCache(ProgressTask<?> task, BufferedImage source, int[] channels,
+                                               int count) {
+        // Все выбранные каналы преобразуются одним пакетным планом над общим буфером,
+        // поэтому все ядра отдаются потокам FFTW внутри этого плана
+        FFTWThreadPolicy policy =
+                FFTWThreadPolicy.split(1, source.getHeight(), source.getWidth());
+        // Создаем объект BatchFFT2D (вещественное преобразование с половиной спектра)
+        // и устанавливаем данные изображения каждого канала
+        BatchFFT2D fft = new BatchFFT2D(count, source.getHeight(), source.getWidth(), true,
+                policy.getThreadsPerTransform());
+        SpectrumCache cache = new SpectrumCache(source, Arrays.copyOf(channels, count), fft);
+        try {
+            // Каналы декодируются из растра прямо во входной буфер FFTW; энергия исходного
+            // изображения считается по буферу до прямого преобразования
+            fft.setImageData(source, cache.channels);
+            for (int b = 0; b < count; b++) {
+                cache.originalEnergy[channels[b]] = fft.getInputEnergy(b);
             }
+
+            // Выполняем прямое преобразование Фурье всех каналов и сохраняем спектр
+            task.stage("Прямое преобразование");
+            fft.forwardTransform();
+            fft.saveSpectrum();
+            task.worked(1);
+
+            // Строим изображения спектра и обратного преобразования
+            task.stage("Спектр");
+            cache.spectrum = ResultImages.fromView(fft, cache.channels, BatchFFT2D.View.LOG_MAGNITUDE);
+            task.worked(count);
+            task.stage("Обратное преобразование");
+            fft.inverseTransform();
+            task.worked(1);
+            cache.inverse = ResultImages.fromView(fft, cache.channels, BatchFFT2D.View.REAL);
+            task.worked(count);
+            return cache;
+        } catch (RuntimeException e) {
+            // Очищаем ресурсы, связанные с FFTW, если кэш не был построен (в том числе при отмене)
+            fft.cleanup();
+            throw e;
         }
+    }
 
-        // Нормализация данных каждого канала и сохранение в изображении
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                int red = (int) ((redData[i][j] - minRed) / (maxRed - minRed) * 255);
-                int green =
-                        (int) ((greenData[i][j] - minGreen) / (maxGreen - minGreen) * 255);
-                int blue = (int) ((blueData[i][j] - minBlue) / (maxBlue - minBlue) * 255);
-                int rgb = (red << 16) | (green << 8) | blue;
-                image.setRGB(j, i, rgb);
-            }
+    // Освобождение ресурсов FFTW кэша спектров (вызывается только в потоке фоновых задач)
+    private void releaseSpectrumCache() {
+        if (spectrumCache != null) {
+            spectrumCache.fft.cleanup();
+            spectrumCache = null;
         }
-        // Сохранение изображения в файл
-        ImageIO.write(image, "jpg", new File(filename));
-        return image;
     }
 
-    private BufferedImage saveImage(double[][] data, String filename, int shift)
-            throws IOException {
-        // Определение размеров изображения
-        int height = data.length;
-        int width = data[0].length;
-        // Создание нового изображения с заданными размерами и типом INT_RGB
-        BufferedImage image =
-                new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-
-        // Инициализация переменных для хранения минимального и максимального значений
-        double min = Double.MAX_VALUE;
-        double max = Double.MIN_VALUE;
-        // Поиск минимального и максимального значений
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                double value = data[i][j];
-                if (value < min) {
-                    min = value;
-                }
-                if (value > max) {
-                    max = value;
-                }
-            }
+    // Исходный спектр загруженного изображения для набора каналов: пакетное преобразование
+    // с сохраненным спектром и результаты, которые не зависят от фильтра
+    private static final class SpectrumCache {
+        private final BufferedImage image;
+        private final int[] channels;
+        private final BatchFFT2D fft;
+        private Image spectrum;
+        private Image inverse;
+        private final double[] originalEnergy = new double[3];
+
+        private SpectrumCache(BufferedImage image, int[] channels, BatchFFT2D fft) {
+            this.image = image;
+            this.channels = channels;
+            this.fft = fft;
         }
 
-        // Нормализация данных и сохранение в изображении
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                int value = (int) ((data[i][j] - min) / (max - min) * 255);
-                int rgb = (value << shift);
-                image.setRGB(j, i, rgb);
-            }
+        // Проверка, построен ли кэш для того же изображения и тех же каналов
+        private boolean matches(BufferedImage image, int[] channels, int count) {
+            return this.image == image && Arrays.equals(this.channels, Arrays.copyOf(channels, count));
         }
-        // Сохранение изображения в файл
-        ImageIO.write(image, "jpg", new File(filename));
-        return image;
     }
-}
-
 
+    // Результаты фоновой задачи, которые отображаются одним обновлением интерфейса
+    private static final class FourierImages {
+        private Image spectrum;
+        private Image inverse;
+        private Image filteredSpectrum;
+        private Image filteredInverse;
+        private String energy;
+    }
+}
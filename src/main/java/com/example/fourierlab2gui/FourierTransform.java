@@ -1,8 +1,12 @@
 package com.example.fourierlab2gui;
 
+import java.util.Arrays;
 import java.util.stream.IntStream;
 
 public class FourierTransform {
+    // Количество столбцов, обрабатываемых вместе при проходе по столбцам плоскости
+    private static final int COLUMN_BLOCK = 16;
+
     // Метод для выполнения двумерного преобразования Фурье
     public double[][][] twoDimensionalFourierTransform(double[][] PictureInRe,
                                                        double[][] PictureInIm, int width, int height) {
@@ -10,23 +14,22 @@ public class FourierTransform {
         double[][] PictureOutRe = new double[width][height];
         double[][] PictureOutIm = new double[width][height];
 
-        // Предварительный расчет косинусов и синусов для оптимизации
-        double[] cosValuesWidth = new double[width];
-        double[] sinValuesWidth = new double[width];
-        for (int i = 0; i < width; i++) {
-            cosValuesWidth[i] = Math.cos((2 * Math.PI * i) / width);
-            sinValuesWidth[i] = Math.sin((2 * Math.PI * i) / width);
-        }
+        // Получение БПФ для длин строк и столбцов (таблицы множителей кэшируются по длине)
+        MixedRadixFFT fftWidth = MixedRadixFFT.forLength(width);
+        MixedRadixFFT fftHeight = MixedRadixFFT.forLength(height);
 
         // Параллельное выполнение преобразования Фурье по строкам
         IntStream.range(0, height).parallel().forEach(k -> {
+            double[] re = new double[width];
+            double[] im = new double[width];
+            for (int i = 0; i < width; i++) {
+                re[i] = PictureInRe[i][k];
+                im[i] = PictureInIm[i][k];
+            }
+            fftWidth.forward(re, im);
             for (int j = 0; j < width; j++) {
-                for (int i = 0; i < width; i++) {
-                    double cos = cosValuesWidth[(i * j) % width];
-                    double sin = sinValuesWidth[(i * j) % width];
-                    PictureOutRe[j][k] += PictureInRe[i][k] * cos + PictureInIm[i][k] * sin;
-                    PictureOutIm[j][k] += - (PictureInRe[i][k] * sin - PictureInIm[i][k] * cos);
-                }
+                PictureOutRe[j][k] = re[j];
+                PictureOutIm[j][k] = im[j];
             }
         });
 
@@ -34,24 +37,13 @@ public class FourierTransform {
         double[][] PictureSpectrumRe = new double[width][height];
         double[][] PictureSpectrumIm = new double[width][height];
 
-        // Предварительный расчет косинусов и синусов для оптимизации
-        double[] cosValuesHeight = new double[height];
-        double[] sinValuesHeight = new double[height];
-        for (int i = 0; i < height; i++) {
-            cosValuesHeight[i] = Math.cos((2 * Math.PI * i) / height);
-            sinValuesHeight[i] = Math.sin((2 * Math.PI * i) / height);
-        }
-
         // Параллельное выполнение преобразования Фурье по столбцам
         IntStream.range(0, width).parallel().forEach(k -> {
-            for (int j = 0; j < height; j++) {
-                for (int i = 0; i < height; i++) {
-                    double cos = cosValuesHeight[(i * j) % height];
-                    double sin = sinValuesHeight[(i * j) % height];
-                    PictureSpectrumRe[k][j] += PictureOutRe[k][i] * cos + PictureOutIm[k][i] * sin;
-                    PictureSpectrumIm[k][j] += - (PictureOutRe[k][i] * sin - PictureOutIm[k][i] * cos);
-                }
-            }
+            double[] re = PictureOutRe[k].clone();
+            double[] im = PictureOutIm[k].clone();
+            fftHeight.forward(re, im);
+            PictureSpectrumRe[k] = re;
+            PictureSpectrumIm[k] = im;
         });
 
         // Возвращаем реальную и мнимую части выходного изображения, а также реальную и мнимую части спектра изображения
@@ -65,60 +57,130 @@ public class FourierTransform {
         double[][] PictureOutRe = new double[width][height];
         double[][] PictureOutIm = new double[width][height];
 
-        // Предварительный расчет косинусов и синусов для оптимизации
-        double[] cosValuesHeight = new double[height];
-        double[] sinValuesHeight = new double[height];
-        for (int i = 0; i < height; i++) {
-            cosValuesHeight[i] = Math.cos((2 * Math.PI * i) / height);
-            sinValuesHeight[i] = Math.sin((2 * Math.PI * i) / height);
-        }
+        // Получение БПФ для длин строк и столбцов (таблицы множителей кэшируются по длине)
+        MixedRadixFFT fftWidth = MixedRadixFFT.forLength(width);
+        MixedRadixFFT fftHeight = MixedRadixFFT.forLength(height);
 
         // Параллельное выполнение обратного преобразования Фурье по столбцам
         IntStream.range(0, width).parallel().forEach(k -> {
+            double[] re = PictureSpectrumRe[k].clone();
+            double[] im = PictureSpectrumIm[k].clone();
+            fftHeight.inverse(re, im);
+            // Нормализация результата
             for (int j = 0; j < height; j++) {
-                for (int i = 0; i < height; i++) {
-                    double cos = cosValuesHeight[(i * j) % height];
-                    double sin = sinValuesHeight[(i * j) % height];
-                    PictureOutRe[k][j] += PictureSpectrumRe[k][i] * cos - PictureSpectrumIm[k][i] * sin;
-                    PictureOutIm[k][j] += PictureSpectrumRe[k][i] * sin + PictureSpectrumIm[k][i] * cos;
-                }
-                // Нормализация результата
-                PictureOutRe[k][j] /= height;
-                PictureOutIm[k][j] /= height;
+                re[j] /= height;
+                im[j] /= height;
             }
+            PictureOutRe[k] = re;
+            PictureOutIm[k] = im;
         });
 
         // Инициализация массивов для хранения реальной и мнимой части входного изображения
         double[][] PictureInRe = new double[width][height];
         double[][] PictureInIm = new double[width][height];
 
-        // Предварительный расчет косинусов и синусов для оптимизации
-        double[] cosValuesWidth = new double[width];
-        double[] sinValuesWidth = new double[width];
-        for (int i = 0; i < width; i++) {
-            cosValuesWidth[i] = Math.cos((2 * Math.PI * i) / width);
-            sinValuesWidth[i] = Math.sin((2 * Math.PI * i) / width);
-        }
-
         // Параллельное выполнение обратного преобразования Фурье по строкам
         IntStream.range(0, height).parallel().forEach(k -> {
+            double[] re = new double[width];
+            double[] im = new double[width];
+            for (int i = 0; i < width; i++) {
+                re[i] = PictureOutRe[i][k];
+                im[i] = PictureOutIm[i][k];
+            }
+            fftWidth.inverse(re, im);
+            // Нормализация результата
             for (int j = 0; j < width; j++) {
-                for (int i = 0; i < width; i++) {
-                    double cos = cosValuesWidth[(i * j) % width];
-                    double sin = sinValuesWidth[(i * j) % width];
-                    PictureInRe[j][k] += PictureOutRe[i][k] * cos - PictureOutIm[i][k] * sin;
-                    PictureInIm[j][k] += PictureOutRe[i][k] * sin + PictureOutIm[i][k] * cos;
-                }
-                // Нормализация результата
-                PictureInRe[j][k] /= width;
-                PictureInIm[j][k] /= width;
+                PictureInRe[j][k] = re[j] / width;
+                PictureInIm[j][k] = im[j] / width;
             }
         });
 
         // Возвращаем реальную и мнимую части входного изображения
         return new double[][][]{PictureInRe, PictureInIm};
     }
-}
 
+    // Метод для выполнения двумерного преобразования Фурье над плоскостями;
+    // возвращает реальную и мнимую части спектра изображения
+    public ImagePlane[] twoDimensionalFourierTransform(ImagePlane pictureInRe, ImagePlane pictureInIm) {
+        ImagePlane spectrumRe = pictureInRe.copy();
+        ImagePlane spectrumIm = pictureInIm.copy();
+        transformPlane(spectrumRe, spectrumIm, false);
+        return new ImagePlane[]{spectrumRe, spectrumIm};
+    }
 
+    // Метод для выполнения обратного двумерного преобразования Фурье над плоскостями;
+    // возвращает реальную и мнимую части изображения
+    public ImagePlane[] inverseTwoDimensionalFourierTransform(ImagePlane pictureSpectrumRe,
+                                                              ImagePlane pictureSpectrumIm) {
+        ImagePlane pictureInRe = pictureSpectrumRe.copy();
+        ImagePlane pictureInIm = pictureSpectrumIm.copy();
+        transformPlane(pictureInRe, pictureInIm, true);
+        return new ImagePlane[]{pictureInRe, pictureInIm};
+    }
+
+    // Обратное двумерное преобразование Фурье на месте (для плотно упакованных плоскостей, например копий
+    // спектра после фильтрации); после вызова плоскости содержат реальную и мнимую части изображения
+    public void inverseTwoDimensionalFourierTransformInPlace(ImagePlane spectrumRe, ImagePlane spectrumIm) {
+        if (spectrumRe.getStride() != spectrumRe.getWidth() || spectrumIm.getStride() != spectrumIm.getWidth()) {
+            throw new IllegalArgumentException("In-place transform requires densely packed planes");
+        }
+        transformPlane(spectrumRe, spectrumIm, true);
+    }
 
+    // Преобразование плотно упакованных плоскостей на месте: сначала строки, затем блоки столбцов
+    private static void transformPlane(ImagePlane planeRe, ImagePlane planeIm, boolean inverse) {
+        int width = planeRe.getWidth();
+        int height = planeRe.getHeight();
+        double[] dataRe = planeRe.getData();
+        double[] dataIm = planeIm.getData();
+        MixedRadixFFT fftWidth = MixedRadixFFT.forLength(width);
+        MixedRadixFFT fftHeight = MixedRadixFFT.forLength(height);
+
+        // Параллельное выполнение преобразования Фурье по строкам (строки лежат в памяти подряд)
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int offset = y * width;
+            double[] re = Arrays.copyOfRange(dataRe, offset, offset + width);
+            double[] im = Arrays.copyOfRange(dataIm, offset, offset + width);
+            if (inverse) {
+                fftWidth.inverse(re, im);
+            } else {
+                fftWidth.forward(re, im);
+            }
+            System.arraycopy(re, 0, dataRe, offset, width);
+            System.arraycopy(im, 0, dataIm, offset, width);
+        });
+
+        // Параллельное выполнение преобразования Фурье по блокам столбцов: за один проход
+        // по строкам собирается сразу несколько столбцов, что сохраняет локальность доступа
+        int blocks = (width + COLUMN_BLOCK - 1) / COLUMN_BLOCK;
+        IntStream.range(0, blocks).parallel().forEach(block -> {
+            int x0 = block * COLUMN_BLOCK;
+            int count = Math.min(COLUMN_BLOCK, width - x0);
+            double[][] re = new double[count][height];
+            double[][] im = new double[count][height];
+            for (int y = 0; y < height; y++) {
+                int offset = y * width + x0;
+                for (int c = 0; c < count; c++) {
+                    re[c][y] = dataRe[offset + c];
+                    im[c][y] = dataIm[offset + c];
+                }
+            }
+            for (int c = 0; c < count; c++) {
+                if (inverse) {
+                    fftHeight.inverse(re[c], im[c]);
+                } else {
+                    fftHeight.forward(re[c], im[c]);
+                }
+            }
+            // Нормализация результата обратного преобразования выполняется при записи
+            double scale = inverse ? 1.0 / ((double) width * height) : 1.0;
+            for (int y = 0; y < height; y++) {
+                int offset = y * width + x0;
+                for (int c = 0; c < count; c++) {
+                    dataRe[offset + c] = re[c][y] * scale;
+                    dataIm[offset + c] = im[c][y] * scale;
+                }
+            }
+        });
+    }
+}
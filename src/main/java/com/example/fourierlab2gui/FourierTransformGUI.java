@@ -1,7 +1,7 @@
 package com.example.fourierlab2gui;
 
 import javafx.application.Application;
-import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
@@ -13,12 +13,14 @@ import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
-import javafx.embed.swing.SwingFXUtils;
+import javafx.util.Duration;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import static com.example.fourierlab2gui.FilterMaskUtils.createImageFromMask;
@@ -26,7 +28,8 @@ import static com.example.fourierlab2gui.FilterMaskUtils.createImageFromMask;
 public class FourierTransformGUI extends Application {
 
     // Путь к исходному изображению
-    private String imagePath;
+    private volatile String imagePath;
+    // Пути к файлам результатов (заполняются только при записи результатов в файлы)
     // Путь к спектру изображения
     private String spectrumPath;
     // Путь к отфильтрованному спектру
@@ -36,13 +39,13 @@ public class FourierTransformGUI extends Application {
     // Путь к файлу
     private String filePath;
     // Канал изображения (R, G, B, RGB)
-    private String channel;
-    // Фильтр для преобразования Фурье
-    private Filter filter;
+    private volatile String channel;
+    // Фильтр для преобразования Фурье (читается фоновыми задачами)
+    private volatile Filter filter;
     // Пороговое значение для фильтра
-    private double D0;
+    private volatile double D0;
     // Размеры изображения
-    private int M, N;
+    private volatile int M, N;
     // Имя файла
     private String fileName;
     // Представления изображений для отображения на пользовательском интерфейсе
@@ -51,6 +54,7 @@ public class FourierTransformGUI extends Application {
     private ImageView fourierImageView = new ImageView();
     private ImageView filteredSpectrumImageView = new ImageView();
     private ImageView filteredFourierImageView = new ImageView();
+    private ImageView filterMaskImageView = new ImageView();
 
     // Радиокнопки для выбора канала изображения
     RadioButton rButton = new RadioButton("R");
@@ -59,6 +63,50 @@ public class FourierTransformGUI extends Application {
     RadioButton rgbButton = new RadioButton("RGB");
     // Метка для отображения энергии изображения
     Label energyLabel = new Label();
+    // Кнопка отмены, индикатор, описание хода фоновых вычислений и счетчики планировщика пересчета
+    private Button cancelButton = new Button("Отмена");
+    private ProgressBar progressBar = new ProgressBar(0);
+    private Label statusLabel = new Label();
+    private Label schedulerLabel = new Label();
+    // Быстрый предварительный просмотр по уменьшенной копии перед результатом в полном разрешении
+    private CheckBox progressiveCheckBox = new CheckBox("Быстрый предварительный просмотр");
+
+    // Планировщики полного пересчета и предварительного просмотра маски (создаются в start)
+    private RecomputeScheduler<Image[]> recomputeScheduler;
+    private RecomputeScheduler<WritableImage> maskScheduler;
+    // Планировщик предварительного просмотра по уменьшенной копии (отдельный поток, не ждет полного пересчета)
+    private RecomputeScheduler<Image[]> previewScheduler;
+    // Номер последнего запроса пересчета и номер запроса, чей результат в полном разрешении уже отображен
+    // (предварительный просмотр не заменяет более новый или полный результат)
+    private long generation;
+    private long publishedGeneration;
+    // Уменьшенная копия отображаемого изображения (используется только потоком предварительного просмотра)
+    private Image previewSource;
+    private ImagePlane[] previewPlanes;
+    // Задача, ход которой сейчас отображается
+    private ProgressTask<Image[]> shownTask;
+    // Результаты уже отображены: изменения параметров пересчитываются автоматически
+    private boolean resultsShown;
+    // Результаты последних выполнений в памяти по каналам (null - канал не выбран): изображение и спектр
+    // без фильтра, изображение и спектр с фильтром; изображения для ImageView строятся из них без файлов
+    private volatile ImagePlane[] imagePlanes;
+    private volatile ImagePlane[] spectrumPlanes;
+    private volatile ImagePlane[] filteredImagePlanes;
+    private volatile ImagePlane[] filteredSpectrumPlanes;
+    // Запись результатов в файлы JPEG после каждого выполнения (по умолчанию только по кнопке "Скачать")
+    private volatile boolean exportFiles;
+    private CheckBox exportCheckBox = new CheckBox("Сохранять результаты в файлы");
+    // Процент сохраненной энергии по каналам после последнего выполнения с фильтром
+    private volatile String energyText = "";
+
+    // Кэш загруженного изображения: путь, размеры, исходные спектры каналов {re, im}, энергия каналов
+    // и результаты без фильтра {изображение, спектр}; при смене фильтра прямое преобразование не повторяется
+    private String cachedImagePath;
+    private int cachedWidth;
+    private int cachedHeight;
+    private final ImagePlane[][] cachedSpectra = new ImagePlane[3][];
+    private final double[] cachedEnergy = new double[3];
+    private final ImagePlane[][] cachedUnfiltered = new ImagePlane[3][];
 
     // Установка пути к изображению
     public void setImagePath(String imagePath) {
@@ -90,129 +138,198 @@ public class FourierTransformGUI extends Application {
         return filteredFilePath;
     }
 
+    // Включение записи результатов в файлы после каждого выполнения
+    public void setExportFiles(boolean exportFiles) {
+        this.exportFiles = exportFiles;
+    }
+
+    // Изображения результатов последних выполнений: спектр, изображение, отфильтрованный спектр,
+    // отфильтрованное изображение (null - выполнение еще не было)
+    public Image[] getResultImages() {
+        return new Image[]{toImage(spectrumPlanes), toImage(imagePlanes), toImage(filteredSpectrumPlanes),
+                toImage(filteredImagePlanes)};
+    }
+
+    // Изображение в памяти из плоскостей каналов (значения уже в диапазоне 0..255)
+    private static Image toImage(ImagePlane[] planes) {
+        return planes == null ? null : ResultImages.fromPlanes(planes[0], planes[1], planes[2], 1);
+    }
+
+    // Получение процента сохраненной энергии по каналам (после выполнения с фильтром)
+    public String getEnergyText() {
+        return energyText;
+    }
+
     public void execute(boolean applyFilter) {
+        execute(applyFilter, null);
+    }
+
+    // Выполнение с сообщением о ходе работы фоновой задаче (progress может быть null): по единице работы
+    // на канал после прямого и после обратного преобразования и четыре единицы на сохранение результатов;
+    // отмена проверяется между этапами
+    public void execute(boolean applyFilter, ProgressTask<?> progress) {
         // Создание объектов для обработки изображений и преобразования Фурье
         ImageProcessor imageProcessor = new ImageProcessor();
         FourierTransform fourierTransform = new FourierTransform();
 
         try {
-            // Загрузка изображения
-            BufferedImage image = imageProcessor.loadImage(imagePath);
-            // Получение ширины и высоты изображения
-            int width = image.getWidth();
-            int height = image.getHeight();
-
-            // Получение цветовых компонентов изображения
-            int[][] colorComponents = imageProcessor.getColorComponents(image);
-            // Создание массивов для хранения цветовых компонентов
-            int[][][] componentArrays = new int[3][height][width];
-            double[][][] componentArraysDouble = new double[3][height][width];
+            // Спектры строятся заново только для нового изображения и еще не преобразованных каналов
+            String path = imagePath;
+            if (!path.equals(cachedImagePath)) {
+                Arrays.fill(cachedSpectra, null);
+                Arrays.fill(cachedUnfiltered, null);
+                cachedImagePath = path;
+            }
+            boolean[] selected = new boolean[3];
+            boolean missing = false;
+            for (int componentIndex = 0; componentIndex < 3; componentIndex++) {
+                selected[componentIndex] = channel.equals("RGB")
+                        || channel.equals(ImageProcessor.getComponentName(componentIndex));
+                missing |= selected[componentIndex] && cachedSpectra[componentIndex] == null;
+            }
 
-            // Преобразование цветовых компонентов в double и умножение на -1
-            IntStream.range(0, 3).parallel().forEach(componentIndex -> {
-                componentArrays[componentIndex] = imageProcessor.getColorComponentArray(colorComponents, componentIndex);
-                for (int i = 0; i < height; i++) {
-                    for (int j = 0; j < width; j++) {
-                        componentArraysDouble[componentIndex][i][j] = (double) componentArrays[componentIndex][i][j];
-                    }
-                }
-                componentArraysDouble[componentIndex] = imageProcessor.multiplyArrayByNegativeOne(componentArraysDouble[componentIndex]);
-            });
+            // Загрузка изображения и получение цветовых компонентов (спектр остается в естественном порядке,
+            // фильтры задаются в том же порядке, центрируется только изображение спектра)
+            ImagePlane[] componentPlanes = null;
+            if (missing) {
+                BufferedImage image = imageProcessor.loadImage(path);
+                cachedWidth = image.getWidth();
+                cachedHeight = image.getHeight();
+                componentPlanes = imageProcessor.getColorComponentPlanes(image);
+            }
+            // Получение ширины и высоты изображения
+            int width = cachedWidth;
+            int height = cachedHeight;
 
-            // Создание массива для мнимой части преобразования Фурье
-            double[][] imaginaryPart = new double[height][width];
+            // Создание плоскости для мнимой части преобразования Фурье
+            ImagePlane imaginaryPart = new ImagePlane(width, height);
+            ImagePlane[] components = componentPlanes;
 
-            // Создание массивов для хранения результатов преобразования Фурье
-            int[][][] PictureInReInt = new int[3][width][height];
-            int[][][] scaledPictureOutReInt = new int[3][width][height];
+            // Создание массивов для хранения результатов преобразования Фурье (null - канал не выбран)
+            ImagePlane[] pictureInRePlanes = new ImagePlane[3];
+            ImagePlane[] scaledPictureOutRePlanes = new ImagePlane[3];
+            String[] energyPercents = new String[3];
             M = width;
             N = height;
 
             // Применение преобразования Фурье к каждому цветовому каналу
             IntStream.range(0, 3).parallel().forEach(componentIndex -> {
-                if (channel.equals("RGB") || channel.equals(ImageProcessor.getComponentName(componentIndex))) {
-                    // Применение прямого преобразования Фурье
-                    double[][][] fourierResult = fourierTransform.twoDimensionalFourierTransform(
-                            componentArraysDouble[componentIndex], imaginaryPart, width, height);
-
-                    // Применение фильтра, если необходимо
-                    if (applyFilter && filter != null) {
-                        for (int i = 0; i < fourierResult.length; i++) {
-                            fourierResult[i] = filter.applyFilter(fourierResult[i]);
+                if (selected[componentIndex]) {
+                    // Применение прямого преобразования Фурье (один раз для изображения)
+                    ImagePlane[] fourierResult = cachedSpectra[componentIndex];
+                    if (fourierResult == null) {
+                        ImagePlane component = components[componentIndex];
+                        fourierResult = fourierTransform.twoDimensionalFourierTransform(component, imaginaryPart);
+                        double originalEnergy = 0;
+                        for (double value : component.getData()) {
+                            originalEnergy += value * value;
                         }
+                        cachedEnergy[componentIndex] = originalEnergy;
+                        cachedSpectra[componentIndex] = fourierResult;
+                    }
+                    if (progress != null) {
+                        progress.worked(1);
+                        progress.checkCancelled();
                     }
 
-                    // Получение результатов прямого преобразования Фурье
-                    double[][] PictureOutRe = fourierResult[0];
-                    double[][] PictureOutIm = fourierResult[1];
-                    double[][] PictureSpectrumRe = fourierResult[2];
-                    double[][] PictureSpectrumIm = fourierResult[3];
-
-                    // Применение обратного преобразования Фурье
-                    double[][][] inverseFourierResult = fourierTransform.inverseTwoDimensionalFourierTransform( PictureSpectrumRe, PictureSpectrumIm, width, height);
-
-                    // Получение результатов обратного преобразования Фурье
-                    double[][] PictureInRe = inverseFourierResult[0];
-                    double[][] PictureInIm = inverseFourierResult[1];
-
-                    // Умножение результата на -1
-                    PictureInRe = imageProcessor.multiplyArrayByNegativeOne(PictureInRe);
-                    for (int i = 0; i < width; i++) {
-                        for (int j = 0; j < height; j++) {
-                            PictureInReInt[componentIndex][i][j] = (int) PictureInRe[i][j];
+                    if (!applyFilter) {
+                        // Результаты без фильтра не зависят от параметров фильтра и также берутся из кэша
+                        ImagePlane[] unfiltered = cachedUnfiltered[componentIndex];
+                        if (unfiltered == null) {
+                            // Применение обратного преобразования Фурье
+                            ImagePlane[] inverseFourierResult = fourierTransform.inverseTwoDimensionalFourierTransform(
+                                    fourierResult[0], fourierResult[1]);
+                            // Создание изображения спектра с нулевой частотой в центре
+                            unfiltered = new ImagePlane[]{inverseFourierResult[0], FFTShift.fftshift(
+                                    imageProcessor.spectrumImage(fourierResult[0], fourierResult[1]))};
+                            cachedUnfiltered[componentIndex] = unfiltered;
                         }
+                        pictureInRePlanes[componentIndex] = unfiltered[0];
+                        scaledPictureOutRePlanes[componentIndex] = unfiltered[1];
+                        if (progress != null) {
+                            progress.worked(1);
+                        }
+                        return;
                     }
 
-                    // Создание изображения спектра
-                    double[][] scaledPictureOutRe = imageProcessor.spectrumImage(PictureSpectrumRe, PictureSpectrumIm, width, height);
-                    for (int i = 0; i < width; i++) {
-                        for (int j = 0; j < height; j++) {
-                            scaledPictureOutReInt[componentIndex][i][j] = (int) scaledPictureOutRe[i][j];
-                        }
+                    // Применение фильтра к копии комплексного спектра; энергия результата считается
+                    // по отфильтрованному спектру в том же проходе (равенство Парсеваля, прямое
+                    // преобразование не нормировано), без фильтра энергия не меняется
+                    ImagePlane pictureSpectrumRe = fourierResult[0].copy();
+                    ImagePlane pictureSpectrumIm = fourierResult[1].copy();
+                    double filteredEnergy = cachedEnergy[componentIndex];
+                    if (filter != null) {
+                        filteredEnergy = filter.apply(pictureSpectrumRe, pictureSpectrumIm)
+                                / ((double) width * height);
+                    }
+
+                    // Создание изображения спектра с нулевой частотой в центре
+                    scaledPictureOutRePlanes[componentIndex] = FFTShift.fftshift(
+                            imageProcessor.spectrumImage(pictureSpectrumRe, pictureSpectrumIm));
+
+                    // Применение обратного преобразования Фурье на месте (копия спектра больше не нужна)
+                    fourierTransform.inverseTwoDimensionalFourierTransformInPlace(pictureSpectrumRe, pictureSpectrumIm);
+                    ImagePlane pictureInRe = pictureSpectrumRe;
+                    pictureInRePlanes[componentIndex] = pictureInRe;
+                    if (progress != null) {
+                        progress.worked(1);
                     }
 
                     // Вычисление процента энергии, сохраненной после фильтрации
-                    if (applyFilter) {
-                        double originalEnergy = 0;
-                        for (int i = 0; i < width; i++) {
-                            for (int j = 0; j < height; j++) {
-                                originalEnergy += Math.pow(componentArraysDouble[componentIndex][i][j], 2);
-                            }
-                        }
+                    double energyPercent = (filteredEnergy / cachedEnergy[componentIndex]) * 100;
 
-                        double filteredEnergy = 0;
-                        for (int i = 0; i < width; i++) {
-                            for (int j = 0; j < height; j++) {
-                                filteredEnergy += Math.pow(PictureInRe[i][j], 2);
-                            }
-                        }
+                    // Процент энергии публикуется вместе с остальными результатами
+                    energyPercents[componentIndex] = "Энергия для канала " +
+                            ImageProcessor.getComponentName(componentIndex) + " = " +
+                            energyPercent + "%";
+                }
+            });
 
-                        double energyPercent = (filteredEnergy / originalEnergy) * 100;
-
-                        // Обновление метки с процентом энергии на пользовательском интерфейсе
-                        Platform.runLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                energyLabel.setText("Энергия для канала " +
-                                        ImageProcessor.getComponentName(componentIndex) + " = " +
-                                        energyPercent + "%");
-                            }
-                        });
+            if (applyFilter) {
+                StringBuilder text = new StringBuilder();
+                for (String energyPercent : energyPercents) {
+                    if (energyPercent != null) {
+                        text.append(text.length() > 0 ? "\n" : "").append(energyPercent);
                     }
                 }
-            });
+                energyText = text.toString();
+            }
+
+            // Результаты остаются в памяти; файлы записываются, только если включен экспорт
+            if (applyFilter) {
+                filteredImagePlanes = pictureInRePlanes;
+                filteredSpectrumPlanes = scaledPictureOutRePlanes;
+            } else {
+                imagePlanes = pictureInRePlanes;
+                spectrumPlanes = scaledPictureOutRePlanes;
+            }
+            if (!exportFiles) {
+                if (progress != null) {
+                    progress.worked(4);
+                }
+                return;
+            }
 
             // Сохранение изображений после преобразования Фурье и спектров
-            imageProcessor.saveAfterFourierImages(PictureInReInt[0], PictureInReInt[1], PictureInReInt[2], "after_fourier", width, height);
-            imageProcessor.saveSpectrumImages(scaledPictureOutReInt[0], scaledPictureOutReInt[1], scaledPictureOutReInt[2], "spectrum", width, height);
+            if (progress != null) {
+                progress.stage(applyFilter ? "Сохранение отфильтрованных изображений" : "Сохранение изображений");
+            }
+            imageProcessor.saveAfterFourierImages(pictureInRePlanes[0], pictureInRePlanes[1], pictureInRePlanes[2], "after_fourier");
+            imageProcessor.saveSpectrumImages(scaledPictureOutRePlanes[0], scaledPictureOutRePlanes[1], scaledPictureOutRePlanes[2], "spectrum");
+            if (progress != null) {
+                progress.worked(2);
+            }
             if (applyFilter) {
                 // Сохранение отфильтрованных изображений и спектров
-                filteredSpectrumPath = imageProcessor.saveColorComponentArrayAsImage(scaledPictureOutReInt[0], scaledPictureOutReInt[1], scaledPictureOutReInt[2], "filteredSpectrum.jpg", width, height);
-                filteredFilePath = imageProcessor.saveColorComponentArrayAsImage(PictureInReInt[0], PictureInReInt[1], PictureInReInt[2], "filteredResWithAll2.jpg", width, height);
+                filteredSpectrumPath = imageProcessor.saveColorComponentPlanesAsImage(scaledPictureOutRePlanes[0], scaledPictureOutRePlanes[1], scaledPictureOutRePlanes[2], "filteredSpectrum.jpg");
+                filteredFilePath = imageProcessor.saveColorComponentPlanesAsImage(pictureInRePlanes[0], pictureInRePlanes[1], pictureInRePlanes[2], "filteredResWithAll2.jpg");
             } else {
                 // Сохранение изображений спектра и файла
-                spectrumPath = imageProcessor.saveColorComponentArrayAsImage(scaledPictureOutReInt[0], scaledPictureOutReInt[1], scaledPictureOutReInt[2], "spectrum.jpg", width, height);
-                filePath = imageProcessor.saveColorComponentArrayAsImage(PictureInReInt[0], PictureInReInt[1], PictureInReInt[2], "resWithAll2.jpg", width, height);
+                spectrumPath = imageProcessor.saveColorComponentPlanesAsImage(scaledPictureOutRePlanes[0], scaledPictureOutRePlanes[1], scaledPictureOutRePlanes[2], "spectrum.jpg");
+                filePath = imageProcessor.saveColorComponentPlanesAsImage(pictureInRePlanes[0], pictureInRePlanes[1], pictureInRePlanes[2], "resWithAll2.jpg");
+            }
+            if (progress != null) {
+                progress.worked(2);
             }
 
         } catch (IOException e) {
@@ -243,10 +360,8 @@ public class FourierTransformGUI extends Application {
             File file = fileChooser.showSaveDialog(null);
             if (file != null) {
                 try {
-                    // Получение расширения файла
-                    String ext = file.getName().substring(file.getName().lastIndexOf('.') + 1);
-                    // Сохранение изображения в файл
-                    ImageIO.write(SwingFXUtils.fromFXImage(imageView.getImage(), null), ext, file);
+                    // Сохранение отображаемого изображения из памяти (формат по расширению файла)
+                    ResultImages.save(imageView.getImage(), file);
                 } catch (IOException ex) {
                     System.out.println(ex.getMessage());
                 }
@@ -298,8 +413,7 @@ public class FourierTransformGUI extends Application {
         filteredFourierImageView.setFitHeight(270);
         filteredFourierImageView.setPreserveRatio(true);
 
-        // Создание ImageView для маски фильтра
-        ImageView filterMaskImageView = new ImageView();
+        // Настройка ImageView для маски фильтра
         filterMaskImageView.setFitWidth(280);
         filterMaskImageView.setFitHeight(270);
         filterMaskImageView.setPreserveRatio(true);
@@ -313,6 +427,17 @@ public class FourierTransformGUI extends Application {
         TitledPane filteredSpectrumPane = createTitledPaneWithDownloadButton("Отфильтрованный спектр", filteredSpectrumImageView);
         TitledPane filteredFourierPane = createTitledPaneWithDownloadButton("Отфильтрованное изображение", filteredFourierImageView);
 
+        // Планировщики пересчета: серия изменений параметров объединяется в один запрос, выполняется только
+        // последний; маска строится на отдельном потоке, чтобы не ждать полного пересчета
+        recomputeScheduler = new RecomputeScheduler<>(Duration.millis(300));
+        maskScheduler = new RecomputeScheduler<>(Duration.millis(100), ProgressTask.newWorkerExecutor("mask-preview"));
+        previewScheduler = new RecomputeScheduler<>(Duration.millis(50), ProgressTask.newWorkerExecutor("preview"));
+        progressiveCheckBox.setSelected(true);
+        exportCheckBox.selectedProperty().addListener((observable, oldValue, selected) -> setExportFiles(selected));
+        schedulerLabel.textProperty().bind(Bindings.format("Пересчет: очередь %d, отброшено %d, отменено %d, выполнено %d",
+                recomputeScheduler.queueDepthProperty(), recomputeScheduler.droppedJobsProperty(),
+                recomputeScheduler.cancelledJobsProperty(), recomputeScheduler.completedJobsProperty()));
+
         // Создание выпадающего списка для выбора типа фильтра
         ComboBox<String> filterComboBox = new ComboBox<>();
         filterComboBox.getItems().addAll("HighPassFilter", "GaussianLowPassFilter");
@@ -321,20 +446,26 @@ public class FourierTransformGUI extends Application {
             if (newValue.equals("HighPassFilter")) {
                 filter = new HighPassFilter(D0);
             } else if (newValue.equals("GaussianLowPassFilter")) {
-                filter = new GaussianLowPassFilter(M, N, D0);
+                filter = new GaussianLowPassFilter(D0);
             }
+            parametersChanged();
         });
 
         // Создание текстового поля для ввода порогового значения D0
         TextField D0Field = new TextField();
         D0Field.textProperty().addListener((observable, oldValue, newValue) -> {
-            // Установка введенного значения D0
-            D0 = Double.parseDouble(newValue);
+            // Установка введенного значения D0 (незаконченный ввод пропускается)
+            try {
+                D0 = Double.parseDouble(newValue);
+            } catch (NumberFormatException ex) {
+                return;
+            }
             if (filter instanceof HighPassFilter) {
                 filter = new HighPassFilter(D0);
             } else if (filter instanceof GaussianLowPassFilter) {
-                filter = new GaussianLowPassFilter(M, N, D0);
+                filter = new GaussianLowPassFilter(D0);
             }
+            parametersChanged();
         });
 
         // Создание кнопки для загрузки изображения
@@ -347,32 +478,27 @@ public class FourierTransformGUI extends Application {
                 Image image = new Image(file.toURI().toString());
                 originalImageView.setImage(image);
                 setImagePath(file.getAbsolutePath());
+                M = (int) image.getWidth();
+                N = (int) image.getHeight();
+                resultsShown = false;
+                requestMaskPreview();
 
                 // Сохранение имени файла
                 fileName = file.getName().substring(0, file.getName().lastIndexOf('.'));
             }
         });
 
-        // Создание кнопки для применения преобразования Фурье
-        Button applyButton = new Button("Применить Фурье");
-        applyButton.setOnAction(e -> {
-            long startTime = System.currentTimeMillis();
-            // Выполнение преобразования Фурье
-            execute(false);
-            execute(true);
-            updateImages();
-
-            // Создание маски фильтра и отображение ее на пользовательском интерфейсе
-            double[][] filterMask = FilterMaskUtils.createFilterMask(M, N, D0, filter instanceof HighPassFilter);
-            WritableImage filterMaskImage = createImageFromMask(filterMask); // Создайте изображение из маски фильтра
-            filterMaskImageView.setImage(filterMaskImage);
-
-            // Вывод времени выполнения преобразования
-            long endTime = System.currentTimeMillis();
-            long duration = (endTime - startTime);
-            System.out.println("Время выполнения: " + duration + " милисекунд");
+        // Кнопка отмены ожидающего и выполняющегося пересчета
+        cancelButton.setDisable(true);
+        cancelButton.setOnAction(e -> {
+            previewScheduler.cancel();
+            recomputeScheduler.cancel();
         });
 
+        // Создание кнопки для применения преобразования Фурье (запуск без паузы)
+        Button applyButton = new Button("Применить Фурье");
+        applyButton.setOnAction(e -> requestRecompute(true));
+
         // Создание группы радиокнопок для выбора цветового канала
         ToggleGroup group = new ToggleGroup();
         rButton.setToggleGroup(group);
@@ -396,7 +522,7 @@ public class FourierTransformGUI extends Application {
 
         // Создание вертикального контейнера для элементов управления
         VBox controlPanel = new VBox();
-        controlPanel.getChildren().addAll(loadButton, applyButton, rButton, gButton, bButton, rgbButton, filterComboBox, D0Field, energyLabel);
+        controlPanel.getChildren().addAll(loadButton, applyButton, cancelButton, rButton, gButton, bButton, rgbButton, filterComboBox, D0Field, progressiveCheckBox, exportCheckBox, energyLabel, progressBar, statusLabel, schedulerLabel);
 
         // Создание вертикального контейнера для изображений
         VBox vBoxImages = new VBox(10);
@@ -412,15 +538,184 @@ public class FourierTransformGUI extends Application {
         primaryStage.show();
     }
 
+    // Изменение фильтра или D0: обновление маски и, если результаты уже отображены, пересчет
+    private void parametersChanged() {
+        requestMaskPreview();
+        if (resultsShown) {
+            requestRecompute(false);
+        }
+    }
+
+    // Запрос предварительного просмотра маски выбранного фильтра
+    private void requestMaskPreview() {
+        int width = M;
+        int height = N;
+        if (width == 0 || height == 0) {
+            return;
+        }
+        Filter selected = filter;
+        double cutoff = D0;
+        maskScheduler.request(() -> new ProgressTask<WritableImage>() {
+            @Override
+            protected WritableImage call() {
+                // Передаточная функция берется из кэша, если уже вычислялась
+                TransferFunction mask = selected != null ? selected.getTransferFunction(width, height)
+                        : new IdealFilter(cutoff, false).getTransferFunction(width, height);
+                checkCancelled();
+                return createImageFromMask(mask);
+            }
+        }, filterMaskImageView::setImage);
+    }
+
+    // Запрос полного пересчета спектров и результатов (immediately - без паузы, по кнопке)
+    private void requestRecompute(boolean immediately) {
+        if (imagePath == null || channel == null) {
+            return;
+        }
+        long requestGeneration = ++generation;
+        if (progressiveCheckBox.isSelected()) {
+            requestPreview(requestGeneration, immediately);
+        }
+        Consumer<Image[]> publisher = images -> {
+            publishedGeneration = requestGeneration;
+            publishResults(images);
+        };
+        if (immediately) {
+            recomputeScheduler.requestNow(this::createTransformTask, publisher);
+        } else {
+            recomputeScheduler.request(this::createTransformTask, publisher);
+        }
+    }
+
+    // Запрос предварительного просмотра: тот же фильтр применяется к уменьшенной копии изображения,
+    // результат отображается до завершения пересчета в полном разрешении и затем им заменяется
+    private void requestPreview(long requestGeneration, boolean immediately) {
+        Image source = originalImageView.getImage();
+        if (source == null) {
+            return;
+        }
+        int factor = ProgressivePreview.factorFor((int) source.getWidth(), (int) source.getHeight());
+        if (factor == 1) {
+            // Небольшое изображение пересчитывается в полном разрешении достаточно быстро
+            return;
+        }
+        String selectedChannel = channel;
+        Filter selectedFilter = filter;
+        Supplier<ProgressTask<Image[]>> job = () -> new ProgressTask<>() {
+            @Override
+            protected Image[] call() {
+                ImagePlane[] planes = previewPlanes(source, factor);
+                ImagePlane[] selected = new ImagePlane[3];
+                for (int componentIndex = 0; componentIndex < 3; componentIndex++) {
+                    if (selectedChannel.equals("RGB")
+                            || selectedChannel.equals(ImageProcessor.getComponentName(componentIndex))) {
+                        selected[componentIndex] = planes[componentIndex];
+                    }
+                }
+                return ProgressivePreview.compute(selected, selectedFilter, this);
+            }
+        };
+        Consumer<Image[]> publisher = images -> {
+            if (requestGeneration == generation && publishedGeneration < requestGeneration) {
+                updateImages(images);
+            }
+        };
+        if (immediately) {
+            previewScheduler.requestNow(job, publisher);
+        } else {
+            previewScheduler.request(job, publisher);
+        }
+    }
+
+    // Уменьшенная копия изображения строится один раз на загруженное изображение (в потоке просмотра)
+    private ImagePlane[] previewPlanes(Image source, int factor) {
+        if (source != previewSource) {
+            previewPlanes = ProgressivePreview.downsample(source, factor);
+            previewSource = source;
+        }
+        return previewPlanes;
+    }
+
+    // Создание фоновой задачи преобразования (вызывается планировщиком в момент запуска)
+    private ProgressTask<Image[]> createTransformTask() {
+        long startTime = System.currentTimeMillis();
+        // Преобразования выполняются в фоновой задаче, поток JavaFX остается свободным
+        int channels = channel.equals("RGB") ? 3 : 1;
+        ProgressTask<Image[]> task = new ProgressTask<>() {
+            @Override
+            protected Image[] call() {
+                // Два выполнения по 2 единицы на канал и 4 на сохранение, плюс подготовка изображений
+                setTotalWork(2 * (2L * channels + 4) + 1);
+                stage("Преобразование без фильтра");
+                execute(false, this);
+                stage("Преобразование с фильтром");
+                execute(true, this);
+                stage("Подготовка изображений");
+                Image[] images = createResultImages();
+                worked(1);
+                return images;
+            }
+        };
+        shownTask = task;
+        progressBar.progressProperty().bind(task.progressProperty());
+        statusLabel.textProperty().bind(task.messageProperty());
+        cancelButton.setDisable(false);
+        task.runningProperty().addListener((observable, wasRunning, running) -> {
+            // Вытесненная задача не трогает индикатор следующей
+            if (!running && shownTask == task) {
+                progressBar.progressProperty().unbind();
+                statusLabel.textProperty().unbind();
+                cancelButton.setDisable(true);
+            }
+        });
+        task.setOnSucceeded(event -> {
+            // Вывод времени выполнения преобразования
+            long endTime = System.currentTimeMillis();
+            long duration = (endTime - startTime);
+            System.out.println("Время выполнения: " + duration + " милисекунд");
+        });
+        task.setOnCancelled(event -> {
+            if (shownTask == task) {
+                statusLabel.setText("Отменено");
+            }
+        });
+        task.setOnFailed(event -> {
+            statusLabel.setText("Ошибка: " + task.getException().getMessage());
+            task.getException().printStackTrace();
+        });
+        return task;
+    }
+
+    // Результаты публикуются одним обновлением интерфейса после завершения всех этапов
+    private void publishResults(Image[] images) {
+        updateImages(images);
+        filterMaskImageView.setImage(images[4]);
+        energyLabel.setText(getEnergyText());
+        statusLabel.setText("Готово");
+        resultsShown = true;
+    }
+
+    // Изображения результатов из памяти и маска фильтра (в фоновом потоке): спектр, изображение,
+    // отфильтрованный спектр, отфильтрованное изображение, маска
+    private Image[] createResultImages() {
+        // Создание маски фильтра
+        // (передаточная функция выбранного фильтра берется из кэша, без повторного вычисления)
+        TransferFunction filterMask = filter != null ? filter.getTransferFunction(M, N)
+                : new IdealFilter(D0, false).getTransferFunction(M, N);
+        WritableImage filterMaskImage = createImageFromMask(filterMask);
+        Image[] results = getResultImages();
+        return new Image[]{results[0], results[1], results[2], results[3], filterMaskImage};
+    }
+
     // Метод для обновления изображений на пользовательском интерфейсе
-    private void updateImages() {
-        // Загрузка и отображение изображений спектра и файла
-        spectrumImageView.setImage(new Image("file:" + getSpectrumPath()));
-        fourierImageView.setImage(new Image("file:" + getFilePath()));
-
-        // Загрузка и отображение отфильтрованных изображений спектра и файла
-        filteredSpectrumImageView.setImage(new Image("file:" + getFilteredSpectrumPath()));
-        filteredFourierImageView.setImage(new Image("file:" + getFilteredFilePath()));
+    private void updateImages(Image[] images) {
+        // Отображение изображений спектра и файла
+        spectrumImageView.setImage(images[0]);
+        fourierImageView.setImage(images[1]);
+
+        // Отображение отфильтрованных изображений спектра и файла
+        filteredSpectrumImageView.setImage(images[2]);
+        filteredFourierImageView.setImage(images[3]);
     }
 
     public static void main(String[] args) {
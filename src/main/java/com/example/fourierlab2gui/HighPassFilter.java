@@ -9,46 +9,17 @@ public class HighPassFilter implements Filter {
         this.D0 = D0;
     }
 
-    // Метод для применения фильтра к изображению
+    // Передаточная функция: 0 внутри круга радиуса D0, далее линейный рост
+    // пропорционально расстоянию от центра изображения
     @Override
-    public double[][] applyFilter(double[][] F) {
-        int width = F.length;
-        int height = F[0].length;
-
-        // Инициализация массива для хранения результата
-        double[][] result = new double[width][height];
-
-        // Вычисление центра изображения
-        int centerX = width / 2;
-        int centerY = height / 2;
-
-        // Применение фильтра к каждому пикселю изображения
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                // Вычисление расстояния от текущего пикселя до центра изображения
-                double distance = Math.sqrt(Math.pow(i - centerX, 2) + Math.pow(j - centerY, 2));
-
-                // Если расстояние меньше порогового значения, то пиксель обнуляется
-                if (distance < D0) {
-                    result[i][j] = 0;
-                } else {
-                    // Иначе применяется формула фильтра
-                    double ratio = (distance - D0) / (Math.sqrt(Math.pow(width, 2) + Math.pow(height, 2)) - D0);
-                    result[i][j] = F[i][j] * ratio;
-                }
-            }
-        }
+    public TransferFunction getTransferFunction(int width, int height) {
+        return TransferFunction.get(TransferFunction.Type.RAMP_HIGH_PASS, width, height, D0);
+    }
 
-        // Возвращение результата
-        return result;
+    // Та же передаточная функция для фрагмента изображения imageWidth x imageHeight
+    @Override
+    public TransferFunction getTileTransferFunction(int width, int height, int imageWidth, int imageHeight) {
+        return TransferFunction.forTile(TransferFunction.Type.RAMP_HIGH_PASS, width, height, imageWidth,
+                imageHeight, D0);
     }
 }
-
-
-
-
-
-
-
-
-
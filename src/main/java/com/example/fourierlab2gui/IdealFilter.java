@@ -0,0 +1,28 @@
+package com.example.fourierlab2gui;
+
+public class IdealFilter implements Filter {
+    // Пороговое значение для фильтра
+    private double D0;
+    // Фильтр высоких (true) или низких (false) частот
+    private boolean highPass;
+
+    // Конструктор класса
+    public IdealFilter(double D0, boolean highPass) {
+        this.D0 = D0;
+        this.highPass = highPass;
+    }
+
+    // Передаточная функция: 0 или 1 в зависимости от расстояния до центра изображения
+    @Override
+    public TransferFunction getTransferFunction(int width, int height) {
+        return TransferFunction.get(highPass ? TransferFunction.Type.IDEAL_HIGH_PASS
+                : TransferFunction.Type.IDEAL_LOW_PASS, width, height, D0);
+    }
+
+    // Та же передаточная функция для фрагмента изображения imageWidth x imageHeight
+    @Override
+    public TransferFunction getTileTransferFunction(int width, int height, int imageWidth, int imageHeight) {
+        return TransferFunction.forTile(highPass ? TransferFunction.Type.IDEAL_HIGH_PASS
+                : TransferFunction.Type.IDEAL_LOW_PASS, width, height, imageWidth, imageHeight, D0);
+    }
+}
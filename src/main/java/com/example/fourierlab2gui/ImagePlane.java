@@ -0,0 +1,143 @@
+package com.example.fourierlab2gui;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+public final class ImagePlane {
+    // Ширина и высота плоскости
+    private final int width;
+    private final int height;
+    // Шаг между началами соседних строк в массиве данных
+    private final int stride;
+    // Значения пикселей, хранящиеся построчно в одном непрерывном массиве
+    private final double[] data;
+
+    // Создание пустой плоскости заданного размера
+    public ImagePlane(int width, int height) {
+        this(width, height, width, new double[checkedSize(width, height)]);
+    }
+
+    // Создание плоскости поверх существующего массива (без копирования)
+    public ImagePlane(int width, int height, int stride, double[] data) {
+        if (width < 0 || height < 0 || stride < width) {
+            throw new IllegalArgumentException("Invalid plane geometry: " + width + "x" + height + ", stride " + stride);
+        }
+        if (height > 0 && (long) (height - 1) * stride + width > data.length) {
+            throw new IllegalArgumentException("Plane data too short: " + data.length);
+        }
+        this.width = width;
+        this.height = height;
+        this.stride = stride;
+        this.data = data;
+    }
+
+    // Адаптер: плоскость из массива строк [height][width]
+    public static ImagePlane fromRows(double[][] rows) {
+        int height = rows.length;
+        int width = height == 0 ? 0 : rows[0].length;
+        ImagePlane plane = new ImagePlane(width, height);
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(rows[y], 0, plane.data, y * width, width);
+        }
+        return plane;
+    }
+
+    // Адаптер: плоскость из массива столбцов [width][height] (раскладка FourierTransform и фильтров)
+    public static ImagePlane fromColumns(double[][] columns) {
+        int width = columns.length;
+        int height = width == 0 ? 0 : columns[0].length;
+        ImagePlane plane = new ImagePlane(width, height);
+        for (int x = 0; x < width; x++) {
+            double[] column = columns[x];
+            for (int y = 0; y < height; y++) {
+                plane.data[y * width + x] = column[y];
+            }
+        }
+        return plane;
+    }
+
+    // Адаптер: массив строк [height][width]
+    public double[][] toRows() {
+        double[][] rows = new double[height][width];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(data, y * stride, rows[y], 0, width);
+        }
+        return rows;
+    }
+
+    // Адаптер: массив столбцов [width][height]
+    public double[][] toColumns() {
+        double[][] columns = new double[width][height];
+        for (int y = 0; y < height; y++) {
+            int offset = y * stride;
+            for (int x = 0; x < width; x++) {
+                columns[x][y] = data[offset + x];
+            }
+        }
+        return columns;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    // Массив данных плоскости (строка y начинается с индекса y * stride)
+    public double[] getData() {
+        return data;
+    }
+
+    // Индекс пикселя (x, y) в массиве данных
+    public int index(int x, int y) {
+        return y * stride + x;
+    }
+
+    public double get(int x, int y) {
+        return data[y * stride + x];
+    }
+
+    public void set(int x, int y, double value) {
+        data[y * stride + x] = value;
+    }
+
+    // Представление строки y без копирования
+    public DoubleBuffer row(int y) {
+        return DoubleBuffer.wrap(data, y * stride, width).slice();
+    }
+
+    // Заполнение плоскости значением
+    public void fill(double value) {
+        if (stride == width) {
+            Arrays.fill(data, 0, width * height, value);
+        } else {
+            for (int y = 0; y < height; y++) {
+                Arrays.fill(data, y * stride, y * stride + width, value);
+            }
+        }
+    }
+
+    // Копия плоскости с плотной упаковкой строк
+    public ImagePlane copy() {
+        ImagePlane copy = new ImagePlane(width, height);
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(data, y * stride, copy.data, y * width, width);
+        }
+        return copy;
+    }
+
+    // Проверка, что плоскость помещается в один массив
+    private static int checkedSize(int width, int height) {
+        long size = (long) width * height;
+        if (width < 0 || height < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid plane size: " + width + "x" + height);
+        }
+        return (int) size;
+    }
+}
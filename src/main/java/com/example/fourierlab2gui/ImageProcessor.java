@@ -4,6 +4,7 @@ import java.awt.image.BufferedImage;
 import javax.imageio.ImageIO;
 import java.io.File;
 import java.io.IOException;
+import java.util.stream.IntStream;
 
 public class ImageProcessor {
     // Метод для загрузки изображения из файла
@@ -20,13 +21,8 @@ public class ImageProcessor {
         // Создание двумерного массива для хранения цветовых компонентов
         int[][] colorComponents = new int[height][width];
 
-        // Цикл по всем пикселям изображения
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                // Получение RGB значения пикселя
-                colorComponents[y][x] = image.getRGB(x, y);
-            }
-        }
+        // Строки пикселей читаются прямо из растра изображения параллельно
+        IntStream.range(0, height).parallel().forEach(y -> RasterAccess.getRGBRow(image, y, colorComponents[y]));
 
         // Возвращение массива цветовых компонентов
         return colorComponents;
@@ -40,8 +36,8 @@ public class ImageProcessor {
         // Создание двумерного массива для хранения цветовой компоненты
         int[][] componentArray = new int[height][width];
 
-        // Цикл по всем элементам массива цветовых компонентов
-        for (int y = 0; y < height; y++) {
+        // Проход по строкам массива цветовых компонент (строки независимы и обрабатываются параллельно)
+        IntStream.range(0, height).parallel().forEach(y -> {
             for (int x = 0; x < width; x++) {
                 // Получение RGB значения
                 int rgb = colorComponents[y][x];
@@ -57,12 +53,55 @@ public class ImageProcessor {
                 // Запись значения цветовой компоненты в массив
                 componentArray[y][x] = componentValue;
             }
-        }
+        });
 
         // Возвращение массива цветовой компоненты
         return componentArray;
     }
 
+    // Метод для получения плоскостей красной, зеленой и синей компонент за один проход по изображению
+    public ImagePlane[] getColorComponentPlanes(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ImagePlane[] planes = {new ImagePlane(width, height), new ImagePlane(width, height),
+                new ImagePlane(width, height)};
+        double[] red = planes[0].getData();
+        double[] green = planes[1].getData();
+        double[] blue = planes[2].getData();
+        // Строка пикселей читается прямо из растра и разделяется на компоненты за один проход
+        // (строки обрабатываются параллельно)
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int[] row = new int[width];
+            RasterAccess.getRGBRow(image, y, row);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                red[offset + x] = (rgb >> 16) & 0xFF;
+                green[offset + x] = (rgb >> 8) & 0xFF;
+                blue[offset + x] = rgb & 0xFF;
+            }
+        });
+        return planes;
+    }
+
+    // Метод для получения плоскости определенной цветовой компоненты
+    public ImagePlane getColorComponentPlane(BufferedImage image, int componentIndex) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        ImagePlane plane = new ImagePlane(width, height);
+        double[] data = plane.getData();
+        int shift = componentIndex == 0 ? 16 : componentIndex == 1 ? 8 : 0;
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int[] row = new int[width];
+            RasterAccess.getRGBRow(image, y, row);
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                data[offset + x] = (row[x] >> shift) & 0xFF;
+            }
+        });
+        return plane;
+    }
+
     // Метод для сохранения изображения из массивов цветовых компонент
     public String saveColorComponentArrayAsImage(int[][] redComponentArray, int[][] greenComponentArray,
                                                  int[][] blueComponentArray, String fileName,
@@ -70,19 +109,19 @@ public class ImageProcessor {
         // Создание нового изображения
         BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
 
-        // Цикл по всем пикселям изображения
-        for (int y = 0; y < height; y++) {
+        // Строки пикселей формируются параллельно и записываются прямо в растр изображения
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int[] row = new int[width];
             for (int x = 0; x < width; x++) {
                 // Получение значений цветовых компонент
                 int red = redComponentArray[y][x];
                 int green = greenComponentArray[y][x];
                 int blue = blueComponentArray[y][x];
                 // Формирование RGB значения
-                int rgb = (red << 16) | (green << 8) | blue;
-                // Установка RGB значения для пикселя
-                image.setRGB(x, y, rgb);
+                row[x] = (red << 16) | (green << 8) | blue;
             }
-        }
+            RasterAccess.setRGBRow(image, y, row);
+        });
 
         // Создание файла для сохранения изображения
         File outputFile = new File(fileName);
@@ -92,6 +131,42 @@ public class ImageProcessor {
         return outputFile.getAbsolutePath();
     }
 
+    // Метод для сохранения изображения из плоскостей цветовых компонент (null - нулевая компонента);
+    // значения обрезаются до диапазона 0..255
+    public String saveColorComponentPlanesAsImage(ImagePlane redPlane, ImagePlane greenPlane,
+                                                  ImagePlane bluePlane, String fileName) throws IOException {
+        BufferedImage image = createColorComponentImage(redPlane, greenPlane, bluePlane, 1);
+
+        // Создание файла для сохранения изображения
+        File outputFile = new File(fileName);
+        // Запись изображения в файл
+        ImageIO.write(image, "jpg", outputFile);
+        // Возвращение пути к файлу
+        return outputFile.getAbsolutePath();
+    }
+
+    // Метод для создания RGB-изображения из плоскостей цветовых компонент (null - нулевая компонента):
+    // значения умножаются на scale и обрезаются до 0..255, объединение и квантование выполняются за один
+    // параллельный проход по строкам с записью прямо в растр
+    public BufferedImage createColorComponentImage(ImagePlane redPlane, ImagePlane greenPlane,
+                                                   ImagePlane bluePlane, double scale) {
+        ImagePlane reference = redPlane != null ? redPlane : greenPlane != null ? greenPlane : bluePlane;
+        int width = reference.getWidth();
+        int height = reference.getHeight();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int[] row = new int[width];
+            for (int x = 0; x < width; x++) {
+                int red = redPlane == null ? 0 : toByte(redPlane.get(x, y) * scale);
+                int green = greenPlane == null ? 0 : toByte(greenPlane.get(x, y) * scale);
+                int blue = bluePlane == null ? 0 : toByte(bluePlane.get(x, y) * scale);
+                row[x] = (red << 16) | (green << 8) | blue;
+            }
+            RasterAccess.setRGBRow(image, y, row);
+        });
+        return image;
+    }
+
     // Метод для сохранения изображений спектра
     public void saveSpectrumImages(int[][] redSpectrumArray, int[][] greenSpectrumArray, int[][] blueSpectrumArray,
                                    String fileName, int width, int height) throws IOException {
@@ -110,6 +185,12 @@ public class ImageProcessor {
                 fileName + "_rgb_spectrum.jpg", width, height);
     }
 
+    // Метод для сохранения изображений спектра из плоскостей
+    public void saveSpectrumImages(ImagePlane redSpectrum, ImagePlane greenSpectrum, ImagePlane blueSpectrum,
+                                   String fileName) throws IOException {
+        saveComponentImages(redSpectrum, greenSpectrum, blueSpectrum, fileName, "_spectrum.jpg");
+    }
+
     // Метод для сохранения изображений после преобразования Фурье
     public void saveAfterFourierImages(int[][] redComponentArray, int[][] greenComponentArray,
                                        int[][] blueComponentArray, String fileName, int width,
@@ -129,26 +210,24 @@ public class ImageProcessor {
                 fileName + "_rgb_after_fourier.jpg", width, height);
     }
 
-    // Метод для умножения массива на -1
-    public double[][] multiplyArrayByNegativeOne(double[][] colorComponents) {
-        // Получение размеров массива
-        int height = colorComponents.length;
-        int width = colorComponents[0].length;
-        // Создание нового массива для хранения результата
-        double[][] componentArray = new double[height][width];
-
-        // Цикл по всем элементам массива
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                // Умножение элемента массива на -1 в степени (x + y)
-                double componentValue = colorComponents[y][x] * Math.pow(-1, x + y);
-                // Запись результата в новый массив
-                componentArray[y][x] = componentValue;
-            }
-        }
+    // Метод для сохранения изображений после преобразования Фурье из плоскостей
+    public void saveAfterFourierImages(ImagePlane redComponent, ImagePlane greenComponent,
+                                       ImagePlane blueComponent, String fileName) throws IOException {
+        saveComponentImages(redComponent, greenComponent, blueComponent, fileName, "_after_fourier.jpg");
+    }
 
-        // Возвращение результата
-        return componentArray;
+    // Сохранение изображений каждой цветовой компоненты и их объединения
+    private void saveComponentImages(ImagePlane red, ImagePlane green, ImagePlane blue,
+                                     String fileName, String suffix) throws IOException {
+        ImagePlane reference = red != null ? red : green != null ? green : blue;
+        ImagePlane zero = new ImagePlane(reference.getWidth(), reference.getHeight());
+        red = red != null ? red : zero;
+        green = green != null ? green : zero;
+        blue = blue != null ? blue : zero;
+        saveColorComponentPlanesAsImage(red, null, null, fileName + "_red" + suffix);
+        saveColorComponentPlanesAsImage(null, green, null, fileName + "_green" + suffix);
+        saveColorComponentPlanesAsImage(null, null, blue, fileName + "_blue" + suffix);
+        saveColorComponentPlanesAsImage(red, green, blue, fileName + "_rgb" + suffix);
     }
 
     // Метод для получения имени цветовой компоненты по индексу
@@ -169,23 +248,17 @@ public class ImageProcessor {
         // Создание нового двумерного массива для масштабированного изображения
         double[][] scaledPictureOutRe = new double[width][height];
 
-        // Инициализация минимального и максимального значений первым элементом массива
-        double minVal = PictureOutRe[0][0];
-        double maxVal = PictureOutRe[0][0];
-
-        // Поиск минимального и максимального значений в массиве
+        // Поиск минимального и максимального значений в массиве (начиная с первого элемента)
+        double[] range = {PictureOutRe[0][0], PictureOutRe[0][0]};
         for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                minVal = Math.min(minVal, PictureOutRe[i][j]);
-                maxVal = Math.max(maxVal, PictureOutRe[i][j]);
-            }
+            SpectrumKernels.minMax(PictureOutRe[i], 0, height, range);
         }
 
-        // Масштабирование значений массива от 0 до 255
+        // Масштабирование значений массива от 0 до 255 (по столбцам)
+        double scale = 255 / (range[1] - range[0]);
         for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                scaledPictureOutRe[i][j] = ((PictureOutRe[i][j] - minVal) / (maxVal - minVal)) * 255;
-            }
+            System.arraycopy(PictureOutRe[i], 0, scaledPictureOutRe[i], 0, height);
+            SpectrumKernels.affine(scaledPictureOutRe[i], 0, height, range[0], scale);
         }
 
         // Возвращение масштабированного массива
@@ -196,19 +269,11 @@ public class ImageProcessor {
         // Создание нового двумерного массива для амплитудного спектра
         double[][] amplitudeSpectrum = new double[width][height];
 
-        // Вычисление амплитудного спектра
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                amplitudeSpectrum[i][j] = Math.sqrt(Math.pow(PictureSpectrumRe[i][j], 2) +
-                        Math.pow(PictureSpectrumIm[i][j], 2));
-            }
-        }
-
-        // Применение логарифмического масштабирования к амплитудному спектру
+        // Вычисление амплитудного спектра и логарифмическое масштабирование (по столбцам)
         for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                amplitudeSpectrum[i][j] = Math.log(1 + amplitudeSpectrum[i][j]);
-            }
+            SpectrumKernels.magnitude(PictureSpectrumRe[i], 0, PictureSpectrumIm[i], 0, amplitudeSpectrum[i], 0,
+                    height);
+            SpectrumKernels.logPlusOne(amplitudeSpectrum[i], 0, height);
         }
 
         // Масштабирование реальной части амплитудного спектра до 255
@@ -217,7 +282,48 @@ public class ImageProcessor {
         // Возвращение амплитудного спектра
         return amplitudeSpectrum;
     }
-}
 
+    // Масштабирование значений плоскости в диапазон 0..255 на месте
+    public ImagePlane scaleRealPartTo255(ImagePlane plane) {
+        double[] data = plane.getData();
+        int width = plane.getWidth();
+        int height = plane.getHeight();
+        int stride = plane.getStride();
 
+        // Поиск минимального и максимального значений
+        double[] range = {plane.get(0, 0), plane.get(0, 0)};
+        for (int y = 0; y < height; y++) {
+            SpectrumKernels.minMax(data, y * stride, width, range);
+        }
+
+        // Масштабирование значений от 0 до 255
+        double scale = 255 / (range[1] - range[0]);
+        for (int y = 0; y < height; y++) {
+            SpectrumKernels.affine(data, y * stride, width, range[0], scale);
+        }
+        return plane;
+    }
 
+    // Логарифмический амплитудный спектр, масштабированный до 0..255
+    public ImagePlane spectrumImage(ImagePlane pictureSpectrumRe, ImagePlane pictureSpectrumIm) {
+        int width = pictureSpectrumRe.getWidth();
+        int height = pictureSpectrumRe.getHeight();
+        ImagePlane amplitudeSpectrum = new ImagePlane(width, height);
+        double[] amplitude = amplitudeSpectrum.getData();
+
+        // Вычисление амплитуды и логарифмическое масштабирование по строкам
+        for (int y = 0; y < height; y++) {
+            SpectrumKernels.magnitude(pictureSpectrumRe.getData(), pictureSpectrumRe.index(0, y),
+                    pictureSpectrumIm.getData(), pictureSpectrumIm.index(0, y), amplitude, y * width, width);
+            SpectrumKernels.logPlusOne(amplitude, y * width, width);
+        }
+
+        return scaleRealPartTo255(amplitudeSpectrum);
+    }
+
+    // Преобразование значения в байт цветовой компоненты с отсечением
+    static int toByte(double value) {
+        int v = (int) value;
+        return v < 0 ? 0 : v > 255 ? 255 : v;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.fourierlab2gui;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public final class MappedPlane implements Closeable {
+    // Плоскость изображения во временном файле, отображенном в память: размер ограничен диском, а не кучей
+    // (обработка изображений, которые не помещаются в память целиком)
+
+    // Наибольший размер одного отображения файла (ограничение MappedByteBuffer)
+    private static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE;
+
+    private final int width;
+    private final int height;
+    // Количество строк в одном отображенном сегменте
+    private final int rowsPerSegment;
+    private final FileChannel channel;
+    // Отображенные сегменты файла; значения хранятся во float (вдвое меньше обмена с диском,
+    // точности достаточно для 8-битных изображений и результатов фильтрации)
+    private final FloatBuffer[] segments;
+
+    // Создание плоскости width x height во временном файле каталога directory (файл удаляется при close)
+    public MappedPlane(Path directory, int width, int height) throws IOException {
+        long rowBytes = (long) width * Float.BYTES;
+        if (width < 1 || height < 1 || rowBytes > MAX_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Invalid mapped plane size: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.rowsPerSegment = (int) Math.min(height, MAX_SEGMENT_BYTES / rowBytes);
+        Path file = Files.createTempFile(directory, "plane", ".tmp");
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        try {
+            int count = (height + rowsPerSegment - 1) / rowsPerSegment;
+            this.segments = new FloatBuffer[count];
+            for (int s = 0; s < count; s++) {
+                int rows = Math.min(rowsPerSegment, height - s * rowsPerSegment);
+                segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, s * rowsPerSegment * rowBytes,
+                        rows * rowBytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Чтение length значений строки y начиная со столбца x в массив destination (с позиции offset);
+    // абсолютный доступ к буферу, поэтому разные потоки могут читать одновременно
+    public void readRow(int y, int x, double[] destination, int offset, int length) {
+        checkRange(y, x, length);
+        FloatBuffer segment = segments[y / rowsPerSegment];
+        int index = (y % rowsPerSegment) * width + x;
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = segment.get(index + i);
+        }
+    }
+
+    // Запись length значений из source (с позиции offset) в строку y начиная со столбца x;
+    // разные потоки могут одновременно записывать непересекающиеся участки
+    public void writeRow(int y, int x, double[] source, int offset, int length) {
+        checkRange(y, x, length);
+        FloatBuffer segment = segments[y / rowsPerSegment];
+        int index = (y % rowsPerSegment) * width + x;
+        for (int i = 0; i < length; i++) {
+            segment.put(index + i, (float) source[offset + i]);
+        }
+    }
+
+    // Закрытие и удаление временного файла (отображения освобождаются сборщиком мусора)
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void checkRange(int y, int x, int length) {
+        if (y < 0 || y >= height || x < 0 || length < 0 || x + length > width) {
+            throw new IndexOutOfBoundsException("Row " + y + ", columns [" + x + ", " + (x + length)
+                    + ") out of " + width + "x" + height);
+        }
+    }
+}
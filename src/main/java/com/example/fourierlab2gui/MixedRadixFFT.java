@@ -0,0 +1,341 @@
+package com.example.fourierlab2gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class MixedRadixFFT {
+    // Кэш экземпляров по длине преобразования (таблицы поворотных множителей строятся один раз)
+    private static final Map<Integer, MixedRadixFFT> CACHE = new ConcurrentHashMap<>();
+
+    // Длина преобразования
+    private final int n;
+    // Разложение длины на множители (радиксы 4, 2, 3, 5)
+    private final int[] factors;
+    // Поворотные множители exp(-2*pi*i*k/n)
+    private final double[] twiddleRe;
+    private final double[] twiddleIm;
+
+    // Данные алгоритма Блюстейна (используются, если в длине есть простые множители больше 5)
+    private final MixedRadixFFT bluesteinFFT;
+    private final double[] chirpRe;
+    private final double[] chirpIm;
+    private final double[] bluesteinFilterRe;
+    private final double[] bluesteinFilterIm;
+
+    // Получение экземпляра для заданной длины из кэша
+    public static MixedRadixFFT forLength(int n) {
+        MixedRadixFFT fft = CACHE.get(n);
+        if (fft == null) {
+            // Вложенное создание (Блюстейн) не должно выполняться внутри computeIfAbsent
+            fft = new MixedRadixFFT(n);
+            MixedRadixFFT existing = CACHE.putIfAbsent(n, fft);
+            if (existing != null) {
+                fft = existing;
+            }
+        }
+        return fft;
+    }
+
+    private MixedRadixFFT(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Invalid FFT length: " + n);
+        }
+        this.n = n;
+
+        // Разложение длины на множители
+        List<Integer> factorList = new ArrayList<>();
+        int rest = n;
+        for (int radix : new int[]{4, 2, 3, 5}) {
+            while (rest % radix == 0) {
+                factorList.add(radix);
+                rest /= radix;
+            }
+        }
+
+        if (rest == 1) {
+            // Длина раскладывается на радиксы 2, 3, 4, 5 - используем алгоритм Кули-Тьюки
+            factors = factorList.stream().mapToInt(Integer::intValue).toArray();
+            twiddleRe = new double[n];
+            twiddleIm = new double[n];
+            for (int k = 0; k < n; k++) {
+                double angle = -2 * Math.PI * k / n;
+                twiddleRe[k] = Math.cos(angle);
+                twiddleIm[k] = Math.sin(angle);
+            }
+            bluesteinFFT = null;
+            chirpRe = null;
+            chirpIm = null;
+            bluesteinFilterRe = null;
+            bluesteinFilterIm = null;
+        } else {
+            // Неудобная длина - сводим к свертке степени двойки (алгоритм Блюстейна)
+            factors = null;
+            twiddleRe = null;
+            twiddleIm = null;
+            int m = Integer.highestOneBit(2 * n - 1);
+            if (m < 2 * n - 1) {
+                m <<= 1;
+            }
+            bluesteinFFT = forLength(m);
+
+            // Вычисление чирп-последовательности exp(-i*pi*k^2/n)
+            chirpRe = new double[n];
+            chirpIm = new double[n];
+            for (int k = 0; k < n; k++) {
+                // k^2 берется по модулю 2n, чтобы не терять точность на больших k
+                long kk = ((long) k * k) % (2L * n);
+                double angle = -Math.PI * kk / n;
+                chirpRe[k] = Math.cos(angle);
+                chirpIm[k] = Math.sin(angle);
+            }
+
+            // Спектр сопряженной чирп-последовательности, дополненной до длины m
+            bluesteinFilterRe = new double[m];
+            bluesteinFilterIm = new double[m];
+            bluesteinFilterRe[0] = chirpRe[0];
+            bluesteinFilterIm[0] = -chirpIm[0];
+            for (int k = 1; k < n; k++) {
+                bluesteinFilterRe[k] = bluesteinFilterRe[m - k] = chirpRe[k];
+                bluesteinFilterIm[k] = bluesteinFilterIm[m - k] = -chirpIm[k];
+            }
+            bluesteinFFT.forward(bluesteinFilterRe, bluesteinFilterIm);
+        }
+    }
+
+    // Получение длины преобразования
+    public int length() {
+        return n;
+    }
+
+    // Прямое преобразование на месте (без нормализации)
+    public void forward(double[] re, double[] im) {
+        if (bluesteinFFT != null) {
+            bluestein(re, im);
+            return;
+        }
+        if (n == 1) {
+            return;
+        }
+        // Копируем вход, так как рекурсивная схема работает не на месте
+        double[] inRe = re.clone();
+        double[] inIm = im.clone();
+        work(re, im, 0, inRe, inIm, 0, 1, 0);
+    }
+
+    // Обратное преобразование на месте (без деления на n)
+    public void inverse(double[] re, double[] im) {
+        // Обратное преобразование получается перестановкой реальной и мнимой частей
+        forward(im, re);
+    }
+
+    // Рекурсивный шаг прореживания по времени для радикса factors[stage]
+    private void work(double[] outRe, double[] outIm, int outOffset,
+                      double[] inRe, double[] inIm, int inOffset, int stride, int stage) {
+        int p = factors[stage];
+        int m = n / (stride * p);
+
+        if (m == 1) {
+            // Последний этап - просто выбираем элементы с нужным шагом
+            for (int q = 0; q < p; q++) {
+                outRe[outOffset + q] = inRe[inOffset + q * stride];
+                outIm[outOffset + q] = inIm[inOffset + q * stride];
+            }
+        } else {
+            // Рекурсивно преобразуем p прореженных подпоследовательностей длины m
+            for (int q = 0; q < p; q++) {
+                work(outRe, outIm, outOffset + q * m, inRe, inIm,
+                        inOffset + q * stride, stride * p, stage + 1);
+            }
+        }
+
+        // Объединяем подпоследовательности бабочкой нужного радикса
+        switch (p) {
+            case 2:
+                butterfly2(outRe, outIm, outOffset, stride, m);
+                break;
+            case 3:
+                butterfly3(outRe, outIm, outOffset, stride, m);
+                break;
+            case 4:
+                butterfly4(outRe, outIm, outOffset, stride, m);
+                break;
+            default:
+                butterfly5(outRe, outIm, outOffset, stride, m);
+                break;
+        }
+    }
+
+    private void butterfly2(double[] re, double[] im, int offset, int stride, int m) {
+        for (int k = 0; k < m; k++) {
+            int i0 = offset + k;
+            int i1 = i0 + m;
+            int t = k * stride;
+            // Умножение второго элемента на поворотный множитель
+            double r1 = re[i1] * twiddleRe[t] - im[i1] * twiddleIm[t];
+            double m1 = re[i1] * twiddleIm[t] + im[i1] * twiddleRe[t];
+            re[i1] = re[i0] - r1;
+            im[i1] = im[i0] - m1;
+            re[i0] += r1;
+            im[i0] += m1;
+        }
+    }
+
+    private void butterfly3(double[] re, double[] im, int offset, int stride, int m) {
+        // sin(2*pi/3) для прямого преобразования берется со знаком минус
+        double s = twiddleIm[stride * m];
+        for (int k = 0; k < m; k++) {
+            int i0 = offset + k;
+            int i1 = i0 + m;
+            int i2 = i1 + m;
+            int t1 = k * stride;
+            int t2 = 2 * t1;
+
+            double r1 = re[i1] * twiddleRe[t1] - im[i1] * twiddleIm[t1];
+            double m1 = re[i1] * twiddleIm[t1] + im[i1] * twiddleRe[t1];
+            double r2 = re[i2] * twiddleRe[t2] - im[i2] * twiddleIm[t2];
+            double m2 = re[i2] * twiddleIm[t2] + im[i2] * twiddleRe[t2];
+
+            double sumRe = r1 + r2;
+            double sumIm = m1 + m2;
+            double diffRe = (r1 - r2) * s;
+            double diffIm = (m1 - m2) * s;
+            double midRe = re[i0] - 0.5 * sumRe;
+            double midIm = im[i0] - 0.5 * sumIm;
+
+            re[i0] += sumRe;
+            im[i0] += sumIm;
+            re[i1] = midRe - diffIm;
+            im[i1] = midIm + diffRe;
+            re[i2] = midRe + diffIm;
+            im[i2] = midIm - diffRe;
+        }
+    }
+
+    private void butterfly4(double[] re, double[] im, int offset, int stride, int m) {
+        for (int k = 0; k < m; k++) {
+            int i0 = offset + k;
+            int i1 = i0 + m;
+            int i2 = i1 + m;
+            int i3 = i2 + m;
+            int t1 = k * stride;
+            int t2 = 2 * t1;
+            int t3 = 3 * t1;
+
+            double r1 = re[i1] * twiddleRe[t1] - im[i1] * twiddleIm[t1];
+            double m1 = re[i1] * twiddleIm[t1] + im[i1] * twiddleRe[t1];
+            double r2 = re[i2] * twiddleRe[t2] - im[i2] * twiddleIm[t2];
+            double m2 = re[i2] * twiddleIm[t2] + im[i2] * twiddleRe[t2];
+            double r3 = re[i3] * twiddleRe[t3] - im[i3] * twiddleIm[t3];
+            double m3 = re[i3] * twiddleIm[t3] + im[i3] * twiddleRe[t3];
+
+            double a0Re = re[i0] + r2;
+            double a0Im = im[i0] + m2;
+            double a1Re = re[i0] - r2;
+            double a1Im = im[i0] - m2;
+            double b0Re = r1 + r3;
+            double b0Im = m1 + m3;
+            double b1Re = r1 - r3;
+            double b1Im = m1 - m3;
+
+            re[i0] = a0Re + b0Re;
+            im[i0] = a0Im + b0Im;
+            re[i2] = a0Re - b0Re;
+            im[i2] = a0Im - b0Im;
+            // Умножение на -i для прямого преобразования
+            re[i1] = a1Re + b1Im;
+            im[i1] = a1Im - b1Re;
+            re[i3] = a1Re - b1Im;
+            im[i3] = a1Im + b1Re;
+        }
+    }
+
+    private void butterfly5(double[] re, double[] im, int offset, int stride, int m) {
+        // Поворотные множители для 1/5 и 2/5 оборота
+        double ya = twiddleRe[stride * m];
+        double yaIm = twiddleIm[stride * m];
+        double yb = twiddleRe[2 * stride * m];
+        double ybIm = twiddleIm[2 * stride * m];
+        for (int k = 0; k < m; k++) {
+            int i0 = offset + k;
+            int i1 = i0 + m;
+            int i2 = i1 + m;
+            int i3 = i2 + m;
+            int i4 = i3 + m;
+            int t = k * stride;
+
+            double r1 = re[i1] * twiddleRe[t] - im[i1] * twiddleIm[t];
+            double m1 = re[i1] * twiddleIm[t] + im[i1] * twiddleRe[t];
+            double r2 = re[i2] * twiddleRe[2 * t] - im[i2] * twiddleIm[2 * t];
+            double m2 = re[i2] * twiddleIm[2 * t] + im[i2] * twiddleRe[2 * t];
+            double r3 = re[i3] * twiddleRe[3 * t] - im[i3] * twiddleIm[3 * t];
+            double m3 = re[i3] * twiddleIm[3 * t] + im[i3] * twiddleRe[3 * t];
+            double r4 = re[i4] * twiddleRe[4 * t] - im[i4] * twiddleIm[4 * t];
+            double m4 = re[i4] * twiddleIm[4 * t] + im[i4] * twiddleRe[4 * t];
+
+            double s14Re = r1 + r4;
+            double s14Im = m1 + m4;
+            double d14Re = r1 - r4;
+            double d14Im = m1 - m4;
+            double s23Re = r2 + r3;
+            double s23Im = m2 + m3;
+            double d23Re = r2 - r3;
+            double d23Im = m2 - m3;
+
+            double x0Re = re[i0];
+            double x0Im = im[i0];
+            re[i0] = x0Re + s14Re + s23Re;
+            im[i0] = x0Im + s14Im + s23Im;
+
+            double aRe = x0Re + s14Re * ya + s23Re * yb;
+            double aIm = x0Im + s14Im * ya + s23Im * yb;
+            double bRe = -(d14Im * yaIm + d23Im * ybIm);
+            double bIm = d14Re * yaIm + d23Re * ybIm;
+            re[i1] = aRe + bRe;
+            im[i1] = aIm + bIm;
+            re[i4] = aRe - bRe;
+            im[i4] = aIm - bIm;
+
+            double cRe = x0Re + s14Re * yb + s23Re * ya;
+            double cIm = x0Im + s14Im * yb + s23Im * ya;
+            double dRe = d23Im * yaIm - d14Im * ybIm;
+            double dIm = d14Re * ybIm - d23Re * yaIm;
+            re[i2] = cRe + dRe;
+            im[i2] = cIm + dIm;
+            re[i3] = cRe - dRe;
+            im[i3] = cIm - dIm;
+        }
+    }
+
+    // Преобразование произвольной длины через свертку (алгоритм Блюстейна)
+    private void bluestein(double[] re, double[] im) {
+        int m = bluesteinFFT.length();
+        double[] aRe = new double[m];
+        double[] aIm = new double[m];
+
+        // Умножение входа на чирп-последовательность
+        for (int k = 0; k < n; k++) {
+            aRe[k] = re[k] * chirpRe[k] - im[k] * chirpIm[k];
+            aIm[k] = re[k] * chirpIm[k] + im[k] * chirpRe[k];
+        }
+
+        // Свертка с сопряженной чирп-последовательностью через БПФ длины m
+        bluesteinFFT.forward(aRe, aIm);
+        for (int k = 0; k < m; k++) {
+            double r = aRe[k] * bluesteinFilterRe[k] - aIm[k] * bluesteinFilterIm[k];
+            double i = aRe[k] * bluesteinFilterIm[k] + aIm[k] * bluesteinFilterRe[k];
+            aRe[k] = r;
+            aIm[k] = i;
+        }
+        bluesteinFFT.inverse(aRe, aIm);
+
+        // Повторное умножение на чирп-последовательность и нормализация свертки
+        for (int k = 0; k < n; k++) {
+            double r = aRe[k] / m;
+            double i = aIm[k] / m;
+            re[k] = r * chirpRe[k] - i * chirpIm[k];
+            im[k] = r * chirpIm[k] + i * chirpRe[k];
+        }
+    }
+}
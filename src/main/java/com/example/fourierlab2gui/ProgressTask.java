@@ -0,0 +1,63 @@
+package com.example.fourierlab2gui;
+
+import javafx.concurrent.Task;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+public abstract class ProgressTask<V> extends Task<V> {
+    // Общий исполнитель фоновых вычислений GUI: один поток-демон, поэтому запуски выполняются по очереди
+    // и не конкурируют за потоки FFTW и память (параллелизм - внутри запуска)
+    private static final ExecutorService EXECUTOR = newWorkerExecutor("fourier-worker");
+
+    // Выполненная и общая работа в условных единицах (каналы, этапы, изображения)
+    private final AtomicLong workDone = new AtomicLong();
+    private volatile long totalWork = 1;
+
+    // Однопоточный исполнитель с потоком-демоном (для задач, которые не должны ждать основные вычисления)
+    public static ExecutorService newWorkerExecutor(String name) {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Запуск задачи на исполнителе фоновых вычислений
+    public ProgressTask<V> start() {
+        return start(EXECUTOR);
+    }
+
+    // Запуск задачи на указанном исполнителе
+    public ProgressTask<V> start(Executor executor) {
+        executor.execute(this);
+        return this;
+    }
+
+    // Установка общего объема работы (вызывается в начале call, когда известно число каналов)
+    public void setTotalWork(long totalWork) {
+        this.totalWork = Math.max(1, totalWork);
+        updateProgress(workDone.get(), this.totalWork);
+    }
+
+    // Начало этапа: проверка отмены между этапами и сообщение о текущем этапе
+    public void stage(String message) {
+        checkCancelled();
+        updateMessage(message);
+    }
+
+    // Учет выполненной работы (безопасно вызывать из параллельных потоков)
+    public void worked(long units) {
+        updateProgress(workDone.addAndGet(units), totalWork);
+    }
+
+    // Кооперативная отмена: вычисления прерываются в ближайшей точке проверки
+    public void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.fourierlab2gui;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+
+public final class ProgressivePreview {
+    // Наибольшее число пикселей уменьшенной копии изображения
+    public static final int PREVIEW_PIXELS = 512 * 512;
+
+    private ProgressivePreview() {
+    }
+
+    // Коэффициент уменьшения (степень двойки), при котором копия не больше PREVIEW_PIXELS;
+    // 1 - изображение и так небольшое, предварительный просмотр не нужен
+    public static int factorFor(int width, int height) {
+        int factor = 1;
+        while ((long) (width / factor) * (height / factor) > PREVIEW_PIXELS
+                && factor * 2 <= Math.min(width, height)) {
+            factor *= 2;
+        }
+        return factor;
+    }
+
+    // Уменьшенная копия изображения: среднее по блокам factor x factor (подавляет наложение частот),
+    // неполные блоки у правого и нижнего края отбрасываются; возвращает плоскости R, G, B
+    public static ImagePlane[] downsample(Image image, int factor) {
+        int width = (int) image.getWidth() / factor;
+        int height = (int) image.getHeight() / factor;
+        int sourceWidth = width * factor;
+        ImagePlane[] planes = {new ImagePlane(width, height), new ImagePlane(width, height),
+                new ImagePlane(width, height)};
+        double[] red = planes[0].getData();
+        double[] green = planes[1].getData();
+        double[] blue = planes[2].getData();
+        double scale = 1.0 / ((double) factor * factor);
+
+        // Строка исходного изображения читается одной операцией и накапливается в строке копии
+        PixelReader reader = image.getPixelReader();
+        int[] row = new int[sourceWidth];
+        for (int y = 0; y < height * factor; y++) {
+            reader.getPixels(0, y, sourceWidth, 1, PixelFormat.getIntArgbInstance(), row, 0, sourceWidth);
+            int offset = (y / factor) * width;
+            for (int x = 0; x < sourceWidth; x++) {
+                int argb = row[x];
+                int i = offset + x / factor;
+                red[i] += ((argb >> 16) & 0xFF) * scale;
+                green[i] += ((argb >> 8) & 0xFF) * scale;
+                blue[i] += (argb & 0xFF) * scale;
+            }
+        }
+        return planes;
+    }
+
+    // Результаты по уменьшенным плоскостям (null - канал не выбран): спектр, изображение,
+    // отфильтрованный спектр, отфильтрованное изображение. Частота среза задается в периодах на изображение,
+    // поэтому фильтр применяется к уменьшенному спектру без пересчета D0
+    public static Image[] compute(ImagePlane[] planes, Filter filter, ProgressTask<?> task) {
+        boolean selected = false;
+        for (ImagePlane plane : planes) {
+            selected |= plane != null;
+        }
+        if (!selected) {
+            throw new IllegalArgumentException("No channel selected for preview");
+        }
+
+        // Тот же конвейер, что и в полном разрешении: FourierTransform (без FFTW), фильтр на комплексном
+        // спектре и ImageProcessor.spectrumImage с центрированием
+        FourierTransform fourierTransform = new FourierTransform();
+        ImageProcessor imageProcessor = new ImageProcessor();
+        ImagePlane[] spectrum = new ImagePlane[planes.length];
+        ImagePlane[] inverse = new ImagePlane[planes.length];
+        ImagePlane[] filteredSpectrum = new ImagePlane[planes.length];
+        ImagePlane[] filteredInverse = new ImagePlane[planes.length];
+        for (int componentIndex = 0; componentIndex < planes.length; componentIndex++) {
+            ImagePlane component = planes[componentIndex];
+            if (component == null) {
+                continue;
+            }
+            ImagePlane[] fourierResult = fourierTransform.twoDimensionalFourierTransform(component,
+                    new ImagePlane(component.getWidth(), component.getHeight()));
+            spectrum[componentIndex] = FFTShift.fftshift(
+                    imageProcessor.spectrumImage(fourierResult[0], fourierResult[1]));
+            inverse[componentIndex] =
+                    fourierTransform.inverseTwoDimensionalFourierTransform(fourierResult[0], fourierResult[1])[0];
+            task.checkCancelled();
+
+            // Исходный спектр больше не нужен, поэтому фильтр и обратное преобразование выполняются на месте
+            if (filter != null) {
+                filter.apply(fourierResult[0], fourierResult[1]);
+            }
+            filteredSpectrum[componentIndex] = FFTShift.fftshift(
+                    imageProcessor.spectrumImage(fourierResult[0], fourierResult[1]));
+            fourierTransform.inverseTwoDimensionalFourierTransformInPlace(fourierResult[0], fourierResult[1]);
+            filteredInverse[componentIndex] = fourierResult[0];
+            task.checkCancelled();
+        }
+        return new Image[]{toImage(spectrum), toImage(inverse), toImage(filteredSpectrum), toImage(filteredInverse)};
+    }
+
+    // Изображение в памяти из плоскостей выбранных каналов
+    private static Image toImage(ImagePlane[] channels) {
+        return ResultImages.fromPlanes(channels[0], channels[1], channels[2], 1);
+    }
+}
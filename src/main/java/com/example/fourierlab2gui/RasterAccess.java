@@ -0,0 +1,104 @@
+package com.example.fourierlab2gui;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+public final class RasterAccess {
+
+    private RasterAccess() {
+    }
+
+    // Чтение строки пикселей y в формате ARGB (как BufferedImage.getRGB): для TYPE_INT_RGB, TYPE_INT_ARGB,
+    // TYPE_3BYTE_BGR и TYPE_4BYTE_ABGR значения берутся прямо из буфера растра без преобразования
+    // цветовой модели, для остальных типов - через getRGB
+    public static void getRGBRow(BufferedImage image, int y, int[] row) {
+        int width = image.getWidth();
+        WritableRaster raster = image.getRaster();
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB) && isPacked(raster)) {
+            int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+            int start = packedOffset(raster, y);
+            if (type == BufferedImage.TYPE_INT_ARGB) {
+                System.arraycopy(data, start, row, 0, width);
+            } else {
+                for (int x = 0; x < width; x++) {
+                    row[x] = 0xFF000000 | (data[start + x] & 0xFFFFFF);
+                }
+            }
+            return;
+        }
+        if ((type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_4BYTE_ABGR)
+                && isInterleaved(raster)) {
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+            int pixelStride = sampleModel.getPixelStride();
+            int[] bandOffsets = sampleModel.getBandOffsets();
+            int red = bandOffsets[0];
+            int green = bandOffsets[1];
+            int blue = bandOffsets[2];
+            boolean alpha = type == BufferedImage.TYPE_4BYTE_ABGR;
+            int alphaOffset = alpha ? bandOffsets[3] : 0;
+            int p = interleavedOffset(raster, y);
+            for (int x = 0; x < width; x++, p += pixelStride) {
+                int a = alpha ? data[p + alphaOffset] & 0xFF : 0xFF;
+                row[x] = (a << 24) | ((data[p + red] & 0xFF) << 16) | ((data[p + green] & 0xFF) << 8)
+                        | (data[p + blue] & 0xFF);
+            }
+            return;
+        }
+        image.getRGB(0, y, width, 1, row, 0, width);
+    }
+
+    // Запись строки пикселей y в формате ARGB (как BufferedImage.setRGB): для TYPE_INT_RGB и TYPE_INT_ARGB
+    // прямо в буфер растра, для остальных типов - через setRGB
+    public static void setRGBRow(BufferedImage image, int y, int[] row) {
+        int width = image.getWidth();
+        WritableRaster raster = image.getRaster();
+        int type = image.getType();
+        if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB) && isPacked(raster)) {
+            int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+            int start = packedOffset(raster, y);
+            if (type == BufferedImage.TYPE_INT_ARGB) {
+                System.arraycopy(row, 0, data, start, width);
+            } else {
+                for (int x = 0; x < width; x++) {
+                    data[start + x] = row[x] & 0xFFFFFF;
+                }
+            }
+            return;
+        }
+        image.setRGB(0, y, width, 1, row, 0, width);
+    }
+
+    // Упакованный растр с одним пикселем в элементе int и одним банком данных
+    private static boolean isPacked(WritableRaster raster) {
+        return raster.getDataBuffer() instanceof DataBufferInt && raster.getDataBuffer().getNumBanks() == 1
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel;
+    }
+
+    // Растр с компонентами пикселя в соседних байтах и одним банком данных
+    private static boolean isInterleaved(WritableRaster raster) {
+        return raster.getDataBuffer() instanceof DataBufferByte && raster.getDataBuffer().getNumBanks() == 1
+                && raster.getSampleModel() instanceof PixelInterleavedSampleModel
+                && raster.getNumBands() >= 3;
+    }
+
+    // Индекс первого пикселя строки y в буфере упакованного растра (с учетом смещения подызображения)
+    private static int packedOffset(WritableRaster raster, int y) {
+        int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+        return raster.getDataBuffer().getOffset() + (y - raster.getSampleModelTranslateY()) * stride
+                - raster.getSampleModelTranslateX();
+    }
+
+    // Индекс первого байта строки y в буфере растра с чередующимися компонентами
+    private static int interleavedOffset(WritableRaster raster, int y) {
+        PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+        return raster.getDataBuffer().getOffset()
+                + (y - raster.getSampleModelTranslateY()) * sampleModel.getScanlineStride()
+                - raster.getSampleModelTranslateX() * sampleModel.getPixelStride();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.fourierlab2gui;
+
+import javafx.animation.PauseTransition;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyLongProperty;
+import javafx.beans.property.ReadOnlyLongWrapper;
+import javafx.concurrent.WorkerStateEvent;
+import javafx.util.Duration;
+
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public final class RecomputeScheduler<V> {
+    // Пауза, в течение которой серия изменений параметров объединяется в один запрос
+    private final PauseTransition debounce;
+    // Исполнитель задач (null - общий исполнитель ProgressTask)
+    private final Executor executor;
+
+    // Последний еще не запущенный запрос: фабрика задачи и получатель результата
+    private Supplier<? extends ProgressTask<V>> pendingJob;
+    private Consumer<? super V> pendingPublisher;
+    // Выполняющаяся задача (результат публикуется, только если она не была вытеснена)
+    private ProgressTask<V> running;
+
+    // Количество запросов, объединенных в ожидающий запрос
+    private final ReadOnlyIntegerWrapper queueDepth = new ReadOnlyIntegerWrapper(this, "queueDepth");
+    // Запросы, вытесненные до запуска, отмененные во время выполнения и завершенные с публикацией результата
+    private final ReadOnlyLongWrapper droppedJobs = new ReadOnlyLongWrapper(this, "droppedJobs");
+    private final ReadOnlyLongWrapper cancelledJobs = new ReadOnlyLongWrapper(this, "cancelledJobs");
+    private final ReadOnlyLongWrapper completedJobs = new ReadOnlyLongWrapper(this, "completedJobs");
+
+    public RecomputeScheduler(Duration delay) {
+        this(delay, null);
+    }
+
+    public RecomputeScheduler(Duration delay, Executor executor) {
+        this.debounce = new PauseTransition(delay);
+        this.debounce.setOnFinished(e -> launch());
+        this.executor = executor;
+    }
+
+    // Запрос пересчета (в потоке JavaFX): запускается после паузы без новых запросов;
+    // предыдущий ожидающий запрос отбрасывается, выполняющаяся задача отменяется при запуске нового
+    public void request(Supplier<? extends ProgressTask<V>> job, Consumer<? super V> publisher) {
+        if (pendingJob != null) {
+            droppedJobs.set(droppedJobs.get() + 1);
+        }
+        pendingJob = job;
+        pendingPublisher = publisher;
+        queueDepth.set(queueDepth.get() + 1);
+        debounce.playFromStart();
+    }
+
+    // Запрос пересчета с немедленным запуском (например, по кнопке)
+    public void requestNow(Supplier<? extends ProgressTask<V>> job, Consumer<? super V> publisher) {
+        request(job, publisher);
+        debounce.stop();
+        launch();
+    }
+
+    // Отмена ожидающего запроса и выполняющейся задачи
+    public void cancel() {
+        debounce.stop();
+        if (pendingJob != null) {
+            droppedJobs.set(droppedJobs.get() + 1);
+            pendingJob = null;
+            pendingPublisher = null;
+        }
+        queueDepth.set(0);
+        cancelRunning();
+    }
+
+    // Проверка, выполняется ли задача или ожидает ли запрос
+    public boolean isBusy() {
+        return pendingJob != null || running != null;
+    }
+
+    public ReadOnlyIntegerProperty queueDepthProperty() {
+        return queueDepth.getReadOnlyProperty();
+    }
+
+    public ReadOnlyLongProperty droppedJobsProperty() {
+        return droppedJobs.getReadOnlyProperty();
+    }
+
+    public ReadOnlyLongProperty cancelledJobsProperty() {
+        return cancelledJobs.getReadOnlyProperty();
+    }
+
+    public ReadOnlyLongProperty completedJobsProperty() {
+        return completedJobs.getReadOnlyProperty();
+    }
+
+    // Запуск последнего запроса после паузы
+    private void launch() {
+        if (pendingJob == null) {
+            return;
+        }
+        Supplier<? extends ProgressTask<V>> job = pendingJob;
+        Consumer<? super V> publisher = pendingPublisher;
+        pendingJob = null;
+        pendingPublisher = null;
+        queueDepth.set(0);
+        // Вытесненная задача прерывается в ближайшей точке проверки отмены
+        cancelRunning();
+
+        ProgressTask<V> task = job.get();
+        running = task;
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_SUCCEEDED, e -> {
+            if (running == task) {
+                running = null;
+                completedJobs.set(completedJobs.get() + 1);
+                publisher.accept(task.getValue());
+            }
+        });
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_FAILED, e -> finished(task));
+        task.addEventHandler(WorkerStateEvent.WORKER_STATE_CANCELLED, e -> finished(task));
+        if (executor != null) {
+            task.start(executor);
+        } else {
+            task.start();
+        }
+    }
+
+    private void cancelRunning() {
+        if (running != null) {
+            if (running.cancel()) {
+                cancelledJobs.set(cancelledJobs.get() + 1);
+            }
+            running = null;
+        }
+    }
+
+    private void finished(ProgressTask<V> task) {
+        if (running == task) {
+            running = null;
+        }
+    }
+}
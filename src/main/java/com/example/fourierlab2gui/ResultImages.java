@@ -0,0 +1,88 @@
+package com.example.fourierlab2gui;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+public final class ResultImages {
+
+    private ResultImages() {
+    }
+
+    // Изображение результата в памяти из плоскостей каналов (null - канал не выбран, остается черным):
+    // значения умножаются на scale и отсекаются до 0..255, строки записываются целиком
+    public static WritableImage fromPlanes(ImagePlane redPlane, ImagePlane greenPlane, ImagePlane bluePlane,
+                                           double scale) {
+        ImagePlane reference = redPlane != null ? redPlane : greenPlane != null ? greenPlane : bluePlane;
+        int width = reference.getWidth();
+        int height = reference.getHeight();
+        WritableImage image = new WritableImage(width, height);
+        PixelWriter writer = image.getPixelWriter();
+
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            Arrays.fill(row, 0xFF000000);
+            addChannel(redPlane, y, row, scale, 16);
+            addChannel(greenPlane, y, row, scale, 8);
+            addChannel(bluePlane, y, row, scale, 0);
+            writer.setPixels(0, y, width, 1, PixelFormat.getIntArgbInstance(), row, 0, width);
+        }
+        return image;
+    }
+
+    // Изображение результата в памяти из представления view плоскостей пакета: плоскость b попадает
+    // в компоненту channels[b], остальные компоненты черные; значения нормализуются по плоскости в 0..255
+    // прямо из буферов FFTW (диапазон, затем запись пикселей), без промежуточных плоскостей double
+    public static WritableImage fromView(BatchFFT2D fft, int[] channels, BatchFFT2D.View view) {
+        int width = fft.getWidth();
+        int height = fft.getHeight();
+        int[] pixels = new int[width * height];
+        Arrays.fill(pixels, 0xFF000000);
+        for (int b = 0; b < fft.getCount(); b++) {
+            fft.renderView(b, view, fft.getRange(b, view), pixels, 16 - 8 * channels[b]);
+        }
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return image;
+    }
+
+    // Добавление компоненты строки y плоскости (значения * scale с отсечением до 0..255) в строку пикселей
+    private static void addChannel(ImagePlane plane, int y, int[] row, double scale, int shift) {
+        if (plane != null) {
+            SpectrumKernels.affineToChannel(plane.getData(), plane.index(0, y), row, 0, plane.getWidth(), 0, scale,
+                    shift);
+        }
+    }
+
+    // Копия изображения без альфа-канала (JPEG и BMP не записываются из изображений с прозрачностью)
+    public static BufferedImage toRGBImage(Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        PixelReader reader = image.getPixelReader();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            reader.getPixels(0, y, width, 1, PixelFormat.getIntArgbInstance(), row, 0, width);
+            RasterAccess.setRGBRow(result, y, row);
+        }
+        return result;
+    }
+
+    // Запись изображения в файл; формат определяется расширением имени файла
+    public static String save(Image image, File file) throws IOException {
+        String name = file.getName();
+        String format = name.substring(name.lastIndexOf('.') + 1);
+        if (!ImageIO.write(toRGBImage(image), format, file)) {
+            throw new IOException("No image writer for format: " + format);
+        }
+        return file.getAbsolutePath();
+    }
+}
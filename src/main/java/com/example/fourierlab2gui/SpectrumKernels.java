@@ -0,0 +1,143 @@
+package com.example.fourierlab2gui;
+
+public final class SpectrumKernels {
+    // Ядра постобработки спектра над плоскими массивами: простые циклы без ветвлений.
+    // Циклы с единичным шагом по отдельным массивам (magnitude по раздельным re и im, affine) JIT HotSpot
+    // может векторизовать (SuperWord) на SSE/AVX; ядра над чередующимися парами re, im (magnitude, power,
+    // energy) читают с шагом 2, и SuperWord их не векторизует. Для них на Java 17+ при запуске
+    // с --add-modules jdk.incubator.vector используются VectorKernels на Vector API, а циклы ниже - запасной
+    // вариант. Логарифм - скалярный интринсик
+
+    // Системное свойство для отключения векторных ядер (false), например для сравнения производительности
+    public static final String VECTOR_PROPERTY = "fourierlab2gui.kernels.vector";
+
+    // Используются ли векторные ядра для чередующихся пар re, im
+    private static final boolean VECTORIZED = vectorized();
+
+    private SpectrumKernels() {
+    }
+
+    // Проверка доступности Vector API. В jar для Java 11 и при запуске из каталога классов (без
+    // META-INF/versions) VectorKernels - заглушка, которая всегда недоступна; если модуль есть,
+    // но класс не удается связать, остаются скалярные циклы
+    private static boolean vectorized() {
+        if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))) {
+            return false;
+        }
+        try {
+            return VectorKernels.isAvailable();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    // Используются ли векторные ядра (для диагностики и бенчмарков)
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    // Амплитуды count комплексных значений из массива пар re, im (начиная с пары offset):
+    // destination[destinationOffset + k] = sqrt(re^2 + im^2)
+    public static void magnitude(double[] interleaved, int offset, double[] destination, int destinationOffset,
+                                 int count) {
+        if (VECTORIZED) {
+            VectorKernels.magnitude(interleaved, offset, destination, destinationOffset, count);
+            return;
+        }
+        int base = 2 * offset;
+        for (int k = 0; k < count; k++) {
+            double re = interleaved[base + 2 * k];
+            double im = interleaved[base + 2 * k + 1];
+            destination[destinationOffset + k] = Math.sqrt(re * re + im * im);
+        }
+    }
+
+    // Амплитуды из раздельных массивов вещественной и мнимой частей
+    public static void magnitude(double[] re, int reOffset, double[] im, int imOffset, double[] destination,
+                                 int destinationOffset, int count) {
+        for (int k = 0; k < count; k++) {
+            double x = re[reOffset + k];
+            double y = im[imOffset + k];
+            destination[destinationOffset + k] = Math.sqrt(x * x + y * y);
+        }
+    }
+
+    // Квадраты амплитуд count комплексных значений из массива пар re, im (начиная с пары offset):
+    // destination[destinationOffset + k] = re^2 + im^2
+    public static void power(double[] interleaved, int offset, double[] destination, int destinationOffset,
+                             int count) {
+        if (VECTORIZED) {
+            VectorKernels.power(interleaved, offset, destination, destinationOffset, count);
+            return;
+        }
+        int base = 2 * offset;
+        for (int k = 0; k < count; k++) {
+            double re = interleaved[base + 2 * k];
+            double im = interleaved[base + 2 * k + 1];
+            destination[destinationOffset + k] = re * re + im * im;
+        }
+    }
+
+    // Сумма квадратов амплитуд count комплексных значений из массива пар re, im (начиная с пары offset)
+    public static double energy(double[] interleaved, int offset, int count) {
+        if (VECTORIZED) {
+            return VectorKernels.energy(interleaved, offset, count);
+        }
+        int base = 2 * offset;
+        double energy = 0;
+        for (int k = 0; k < count; k++) {
+            double re = interleaved[base + 2 * k];
+            double im = interleaved[base + 2 * k + 1];
+            energy += re * re + im * im;
+        }
+        return energy;
+    }
+
+    // Логарифмическое масштабирование на месте: v = log(v + 1). Math.log - интринсик HotSpot и быстрее
+    // Math.log1p, но при малых v сумма v + 1 теряет младшие биты v; для амплитуд спектра, которые
+    // затем приводятся к 0..255, эта погрешность не видна
+    public static void logPlusOne(double[] values, int offset, int count) {
+        for (int k = offset; k < offset + count; k++) {
+            values[k] = Math.log(values[k] + 1);
+        }
+    }
+
+    // Минимум и максимум count значений, объединенные с текущими range[0] (минимум) и range[1] (максимум),
+    // чтобы диапазон можно было накапливать по строкам
+    public static void minMax(double[] values, int offset, int count, double[] range) {
+        double min = range[0];
+        double max = range[1];
+        for (int k = offset; k < offset + count; k++) {
+            min = Math.min(min, values[k]);
+            max = Math.max(max, values[k]);
+        }
+        range[0] = min;
+        range[1] = max;
+    }
+
+    // Аффинное преобразование на месте: v = (v - shift) * scale
+    public static void affine(double[] values, int offset, int count, double shift, double scale) {
+        for (int k = offset; k < offset + count; k++) {
+            values[k] = (values[k] - shift) * scale;
+        }
+    }
+
+    // Аффинное приведение к 8 битам с отсечением и упаковкой в компоненту пикселя:
+    // pixels[k] |= clamp((int) ((v - shift) * scale), 0, 255) << channelShift
+    public static void affineToChannel(double[] values, int offset, int[] pixels, int pixelOffset, int count,
+                                       double shift, double scale, int channelShift) {
+        for (int k = 0; k < count; k++) {
+            int v = (int) ((values[offset + k] - shift) * scale);
+            pixels[pixelOffset + k] |= Math.min(Math.max(v, 0), 255) << channelShift;
+        }
+    }
+
+    // Перестановка count значений в обратном порядке на месте
+    public static void reverse(double[] values, int offset, int count) {
+        for (int i = offset, j = offset + count - 1; i < j; i++, j--) {
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.fourierlab2gui;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+public final class StripImageIO {
+    // Число пикселей в одной полосе, декодируемой через ImageIO
+    private static final int STRIP_PIXELS = 1 << 24;
+    // Наибольшее изображение, которое собирается в памяти для записи через ImageIO
+    private static final long MAX_IMAGE_PIXELS = Integer.MAX_VALUE / 2;
+
+    private StripImageIO() {
+    }
+
+    // Чтение компонент channels (0 - R, 1 - G, 2 - B) изображения в плоскости во временных файлах каталога
+    // scratch без загрузки изображения целиком: PPM/PGM (P6/P5) читаются потоком по строкам, остальные
+    // форматы декодируются полосами через ImageReader с областью источника. JPEG при каждом чтении полосы
+    // декодируется заново с начала (время растет квадратично с высотой), поэтому он декодируется за один
+    // проход, если помещается в четверть кучи, а иначе выводится предупреждение
+    public static MappedPlane[] read(File file, int[] channels, Path scratch) throws IOException {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            input.mark(2);
+            boolean netpbm = input.read() == 'P';
+            int kind = input.read();
+            input.reset();
+            if (netpbm && (kind == '5' || kind == '6')) {
+                return readNetpbm(input, channels, scratch);
+            }
+        }
+
+        try (ImageInputStream stream = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = stream == null ? null : ImageIO.getImageReaders(stream);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Неподдерживаемый формат файла");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, false, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                MappedPlane[] planes = createPlanes(scratch, channels.length, width, height);
+                try {
+                    int stripRows = Math.max(1, STRIP_PIXELS / width);
+                    if (stripRows < height && reader.getFormatName().equalsIgnoreCase("jpeg")) {
+                        if ((long) width * height * Integer.BYTES <= Runtime.getRuntime().maxMemory() / 4) {
+                            stripRows = height;
+                        } else {
+                            System.err.println(file.getName() + ": JPEG " + width + "x" + height
+                                    + " декодируется заново для каждой из " + (height + stripRows - 1) / stripRows
+                                    + " полос; для больших изображений используйте PPM или PNG");
+                        }
+                    }
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    int[] pixels = new int[width];
+                    double[] values = new double[width];
+                    for (int y0 = 0; y0 < height; y0 += stripRows) {
+                        int rows = Math.min(stripRows, height - y0);
+                        param.setSourceRegion(new Rectangle(0, y0, width, rows));
+                        BufferedImage strip = reader.read(0, param);
+                        for (int y = 0; y < rows; y++) {
+                            RasterAccess.getRGBRow(strip, y, pixels);
+                            for (int plane = 0; plane < channels.length; plane++) {
+                                int shift = 16 - 8 * channels[plane];
+                                for (int x = 0; x < width; x++) {
+                                    values[x] = (pixels[x] >> shift) & 0xFF;
+                                }
+                                planes[plane].writeRow(y0 + y, 0, values, 0, width);
+                            }
+                        }
+                    }
+                    return planes;
+                } catch (IOException | RuntimeException e) {
+                    close(planes);
+                    throw e;
+                }
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Запись плоскостей в файл: плоскость plane попадает в компоненту channels[plane], остальные компоненты
+    // нулевые; значения нормализуются по плоскости в 0..255 (normalize) или обрезаются до 0..255.
+    // Формат ppm записывается потоком по строкам, остальные форматы - через ImageIO, если изображение
+    // помещается в память
+    public static void write(File file, String format, MappedPlane[] planes, int[] channels, boolean normalize)
+            throws IOException {
+        int width = planes[0].getWidth();
+        int height = planes[0].getHeight();
+        double[] minimums = new double[planes.length];
+        double[] ranges = new double[planes.length];
+        double[] row = new double[width];
+        if (normalize) {
+            for (int plane = 0; plane < planes.length; plane++) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int y = 0; y < height; y++) {
+                    planes[plane].readRow(y, 0, row, 0, width);
+                    for (double value : row) {
+                        min = Math.min(min, value);
+                        max = Math.max(max, value);
+                    }
+                }
+                minimums[plane] = min;
+                ranges[plane] = max - min;
+            }
+        }
+
+        int[] pixels = new int[width];
+        if (format.equals("ppm")) {
+            try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+                output.write(("P6\n" + width + " " + height + "\n255\n").getBytes(StandardCharsets.US_ASCII));
+                byte[] bytes = new byte[width * 3];
+                for (int y = 0; y < height; y++) {
+                    pixelRow(planes, channels, normalize, minimums, ranges, y, row, pixels);
+                    for (int x = 0; x < width; x++) {
+                        bytes[3 * x] = (byte) (pixels[x] >> 16);
+                        bytes[3 * x + 1] = (byte) (pixels[x] >> 8);
+                        bytes[3 * x + 2] = (byte) pixels[x];
+                    }
+                    output.write(bytes);
+                }
+            }
+            return;
+        }
+
+        if ((long) width * height > MAX_IMAGE_PIXELS) {
+            throw new IOException("Изображение " + width + "x" + height + " слишком велико для формата " + format
+                    + ", используйте ppm");
+        }
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            pixelRow(planes, channels, normalize, minimums, ranges, y, row, pixels);
+            RasterAccess.setRGBRow(image, y, pixels);
+        }
+        if (!ImageIO.write(image, format, file)) {
+            throw new IOException("Не удалось записать " + file);
+        }
+    }
+
+    // Закрытие плоскостей (временные файлы удаляются); закрываются все плоскости, даже при ошибке
+    public static void close(MappedPlane[] planes) throws IOException {
+        IOException failure = null;
+        for (MappedPlane plane : planes) {
+            if (plane == null) {
+                continue;
+            }
+            try {
+                plane.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Создание count плоскостей width x height во временных файлах каталога scratch
+    public static MappedPlane[] createPlanes(Path scratch, int count, int width, int height) throws IOException {
+        MappedPlane[] planes = new MappedPlane[count];
+        try {
+            for (int plane = 0; plane < count; plane++) {
+                planes[plane] = new MappedPlane(scratch, width, height);
+            }
+        } catch (IOException | RuntimeException e) {
+            close(planes);
+            throw e;
+        }
+        return planes;
+    }
+
+    // Потоковое чтение двоичного PGM (P5) или PPM (P6); значения больше 255 приводятся к 0..255
+    private static MappedPlane[] readNetpbm(InputStream input, int[] channels, Path scratch) throws IOException {
+        boolean color = readToken(input).equals("P6");
+        int width = parseHeaderValue(readToken(input));
+        int height = parseHeaderValue(readToken(input));
+        int maxValue = parseHeaderValue(readToken(input));
+        if (maxValue > 65535) {
+            throw new IOException("Неверное максимальное значение PNM: " + maxValue);
+        }
+        int samples = color ? 3 : 1;
+        int sampleBytes = maxValue > 255 ? 2 : 1;
+        double scale = 255.0 / maxValue;
+
+        MappedPlane[] planes = createPlanes(scratch, channels.length, width, height);
+        try {
+            byte[] bytes = new byte[width * samples * sampleBytes];
+            double[] values = new double[width];
+            for (int y = 0; y < height; y++) {
+                readFully(input, bytes);
+                for (int plane = 0; plane < channels.length; plane++) {
+                    int sample = color ? channels[plane] : 0;
+                    for (int x = 0; x < width; x++) {
+                        int index = (x * samples + sample) * sampleBytes;
+                        int value = sampleBytes == 1 ? bytes[index] & 0xFF
+                                : ((bytes[index] & 0xFF) << 8) | (bytes[index + 1] & 0xFF);
+                        values[x] = sampleBytes == 1 && maxValue == 255 ? value : Math.round(value * scale);
+                    }
+                    planes[plane].writeRow(y, 0, values, 0, width);
+                }
+            }
+            return planes;
+        } catch (IOException | RuntimeException e) {
+            close(planes);
+            throw e;
+        }
+    }
+
+    // Строка пикселей результата в формате RGB
+    private static void pixelRow(MappedPlane[] planes, int[] channels, boolean normalize, double[] minimums,
+                                 double[] ranges, int y, double[] row, int[] pixels) {
+        Arrays.fill(pixels, 0);
+        for (int plane = 0; plane < planes.length; plane++) {
+            int shift = 16 - 8 * channels[plane];
+            planes[plane].readRow(y, 0, row, 0, row.length);
+            for (int x = 0; x < row.length; x++) {
+                double value = normalize ? (row[x] - minimums[plane]) / ranges[plane] * 255 : row[x];
+                pixels[x] |= ImageProcessor.toByte(value) << shift;
+            }
+        }
+    }
+
+    // Чтение очередного поля заголовка Netpbm (пропуская пробелы и комментарии); после последнего поля
+    // поглощается ровно один пробельный символ
+    private static String readToken(InputStream input) throws IOException {
+        StringBuilder token = new StringBuilder();
+        int c = input.read();
+        while (c != -1 && (Character.isWhitespace(c) || c == '#')) {
+            if (c == '#') {
+                while (c != -1 && c != '\n' && c != '\r') {
+                    c = input.read();
+                }
+            }
+            c = input.read();
+        }
+        while (c != -1 && !Character.isWhitespace(c)) {
+            token.append((char) c);
+            c = input.read();
+        }
+        if (token.length() == 0) {
+            throw new EOFException("Неожиданный конец заголовка PNM");
+        }
+        return token.toString();
+    }
+
+    private static int parseHeaderValue(String token) throws IOException {
+        try {
+            int value = Integer.parseInt(token);
+            if (value < 1) {
+                throw new NumberFormatException();
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IOException("Неверное поле заголовка PNM: " + token);
+        }
+    }
+
+    private static void readFully(InputStream input, byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            int read = input.read(bytes, offset, bytes.length - offset);
+            if (read < 0) {
+                throw new EOFException("Неожиданный конец данных PNM");
+            }
+            offset += read;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.fourierlab2gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class TiledFilter {
+    // Допустимая доля энергии ядра фильтра за пределами перекрытия по умолчанию
+    public static final double DEFAULT_TOLERANCE = 1e-4;
+
+    // Передаточная функция фрагмента (частоты фрагмента пересчитаны в частоты изображения,
+    // поэтому D0 задается, как для всего изображения)
+    private final TransferFunction tileFunction;
+    // Точность буферов и планов FFTW при обработке фрагментов
+    private final FFTWPlanCache.Precision precision;
+    private final int imageWidth;
+    private final int imageHeight;
+    // Размеры фрагмента (не больше изображения)
+    private final int tileWidth;
+    private final int tileHeight;
+    // Перекрытие с каждой стороны фрагмента: отбрасываемые после фильтрации поля
+    private final int marginX;
+    private final int marginY;
+    // Доля энергии ядра за пределами перекрытия (ошибка метода overlap-save)
+    private final double tailEnergy;
+
+    // Фильтрация изображения imageWidth x imageHeight фрагментами не больше tileSize x tileSize: перекрытие
+    // выбирается по пространственному ядру фильтра так, чтобы за его пределами оставалась не больше
+    // tolerance энергии ядра (но не больше четверти фрагмента)
+    public TiledFilter(Filter filter, int imageWidth, int imageHeight, int tileSize, double tolerance) {
+        this(filter, imageWidth, imageHeight, tileSize, tolerance, FFTWPlanCache.Precision.DOUBLE);
+    }
+
+    // То же с заданной точностью обработки фрагментов (ядро и перекрытие всегда считаются в double)
+    public TiledFilter(Filter filter, int imageWidth, int imageHeight, int tileSize, double tolerance,
+                       FFTWPlanCache.Precision precision) {
+        if (tileSize < 4) {
+            throw new IllegalArgumentException("Tile size is too small: " + tileSize);
+        }
+        this.precision = precision;
+        this.imageWidth = imageWidth;
+        this.imageHeight = imageHeight;
+        this.tileWidth = Math.min(imageWidth, tileSize);
+        this.tileHeight = Math.min(imageHeight, tileSize);
+        this.tileFunction = filter.getTileTransferFunction(tileWidth, tileHeight, imageWidth, imageHeight);
+
+        // Ядро фильтра на сетке фрагмента: отклик на единичный импульс в начале координат
+        double[] kernel = new double[tileWidth * tileHeight];
+        BatchFFT2D fft = new BatchFFT2D(1, tileHeight, tileWidth, true);
+        try {
+            kernel[0] = 1;
+            fft.setImageData(0, kernel);
+            fft.forwardTransform();
+            fft.applyFilter(tileFunction);
+            fft.inverseTransform();
+            fft.getImageData(0, kernel);
+        } finally {
+            fft.cleanup();
+        }
+
+        // Энергия ядра по круговому расстоянию от начала координат вдоль каждой оси
+        double[] profileX = new double[tileWidth / 2 + 1];
+        double[] profileY = new double[tileHeight / 2 + 1];
+        double energy = 0;
+        for (int y = 0; y < tileHeight; y++) {
+            for (int x = 0; x < tileWidth; x++) {
+                double value = kernel[y * tileWidth + x];
+                double square = value * value;
+                profileX[Math.min(x, tileWidth - x)] += square;
+                profileY[Math.min(y, tileHeight - y)] += square;
+                energy += square;
+            }
+        }
+        // Если фрагмент покрывает изображение по оси, циклическая свертка фрагмента совпадает с фильтрацией
+        // всего изображения и перекрытие по этой оси не нужно. Отбрасываемая часть ядра - объединение хвостов
+        // по обеим осям, поэтому при перекрытии по двум осям каждой достается половина tolerance
+        boolean tiledX = tileWidth != imageWidth;
+        boolean tiledY = tileHeight != imageHeight;
+        double axisTolerance = tiledX && tiledY ? tolerance / 2 : tolerance;
+        this.marginX = tiledX ? margin(profileX, energy, axisTolerance, tileWidth / 4) : 0;
+        this.marginY = tiledY ? margin(profileY, energy, axisTolerance, tileHeight / 4) : 0;
+        double tail = 0;
+        for (int y = 0; y < tileHeight; y++) {
+            for (int x = 0; x < tileWidth; x++) {
+                if ((marginX > 0 && Math.min(x, tileWidth - x) > marginX)
+                        || (marginY > 0 && Math.min(y, tileHeight - y) > marginY)) {
+                    double value = kernel[y * tileWidth + x];
+                    tail += value * value;
+                }
+            }
+        }
+        this.tailEnergy = energy > 0 ? tail / energy : 0;
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    public int getMarginX() {
+        return marginX;
+    }
+
+    public int getMarginY() {
+        return marginY;
+    }
+
+    public double getTailEnergy() {
+        return tailEnergy;
+    }
+
+    // Фильтрация плоскостей source в destination: threads потоков берут фрагменты по очереди, у каждого
+    // свой пакетный r2c-план на все плоскости, поэтому память ограничена размером фрагмента, а не изображения.
+    // Изображение продолжается периодически, как при фильтрации целиком; в результат записывается только
+    // центральная часть фрагмента без полей перекрытия (overlap-save)
+    public void apply(MappedPlane[] source, MappedPlane[] destination, int threads) throws InterruptedException {
+        if (source.length != destination.length || source.length == 0) {
+            throw new IllegalArgumentException("Expected matching source and destination planes");
+        }
+        for (int plane = 0; plane < source.length; plane++) {
+            checkSize(source[plane]);
+            checkSize(destination[plane]);
+        }
+        int coreWidth = tileWidth - 2 * marginX;
+        int coreHeight = tileHeight - 2 * marginY;
+        int columns = (imageWidth + coreWidth - 1) / coreWidth;
+        int rows = (imageHeight + coreHeight - 1) / coreHeight;
+        int tiles = columns * rows;
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < Math.max(1, Math.min(threads, tiles)); t++) {
+            Thread worker = new Thread(() -> {
+                BatchFFT2D fft = null;
+                try {
+                    fft = new BatchFFT2D(source.length, tileHeight, tileWidth, true, precision);
+                    double[] tile = new double[tileWidth * tileHeight];
+                    int index;
+                    while (failure.get() == null && !Thread.currentThread().isInterrupted()
+                            && (index = next.getAndIncrement()) < tiles) {
+                        int coreX = (index % columns) * coreWidth;
+                        int coreY = (index / columns) * coreHeight;
+                        for (int plane = 0; plane < source.length; plane++) {
+                            readTile(source[plane], coreX - marginX, coreY - marginY, tile);
+                            fft.setImageData(plane, tile);
+                        }
+                        fft.forwardTransform();
+                        fft.applyFilter(tileFunction);
+                        fft.inverseTransform();
+                        // Центральная часть фрагмента, обрезанная по краю изображения
+                        int width = Math.min(coreWidth, imageWidth - coreX);
+                        int height = Math.min(coreHeight, imageHeight - coreY);
+                        for (int plane = 0; plane < source.length; plane++) {
+                            fft.getImageData(plane, tile);
+                            for (int y = 0; y < height; y++) {
+                                destination[plane].writeRow(coreY + y, coreX, tile,
+                                        (marginY + y) * tileWidth + marginX, width);
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    // Любая ошибка (в том числе нехватка памяти или ошибка загрузки FFTW) останавливает
+                    // остальные потоки, иначе необработанные фрагменты остались бы нулевыми
+                    failure.compareAndSet(null, e);
+                } finally {
+                    if (fft != null) {
+                        fft.cleanup();
+                    }
+                }
+            }, "fourier-tile-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            // Потоки прерываются и дорабатывают текущий фрагмент: после возврата плоскости могут быть закрыты
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            joinUninterruptibly(workers);
+            throw e;
+        }
+        Throwable error = failure.get();
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error != null) {
+            throw new IllegalStateException("Tile worker failed: " + error, error);
+        }
+    }
+
+    // Ожидание завершения потоков без реакции на прерывание (флаг прерывания восстанавливается)
+    private static void joinUninterruptibly(List<Thread> workers) {
+        boolean interrupted = false;
+        for (Thread worker : workers) {
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Чтение фрагмента с левым верхним углом (x0, y0) с периодическим продолжением изображения
+    private void readTile(MappedPlane plane, int x0, int y0, double[] tile) {
+        for (int y = 0; y < tileHeight; y++) {
+            int row = Math.floorMod(y0 + y, imageHeight);
+            int offset = y * tileWidth;
+            int x = 0;
+            while (x < tileWidth) {
+                int column = Math.floorMod(x0 + x, imageWidth);
+                int length = Math.min(tileWidth - x, imageWidth - column);
+                plane.readRow(row, column, tile, offset + x, length);
+                x += length;
+            }
+        }
+    }
+
+    private void checkSize(MappedPlane plane) {
+        if (plane.getWidth() != imageWidth || plane.getHeight() != imageHeight) {
+            throw new IllegalArgumentException("Plane size " + plane.getWidth() + "x" + plane.getHeight()
+                    + " does not match " + imageWidth + "x" + imageHeight);
+        }
+    }
+
+    // Наименьшее перекрытие, за которым остается не больше tolerance энергии ядра (не больше limit)
+    private static int margin(double[] profile, double energy, double tolerance, int limit) {
+        double tail = energy;
+        for (int distance = 0; distance < profile.length && distance < limit; distance++) {
+            tail -= profile[distance];
+            if (tail <= tolerance * energy) {
+                return distance;
+            }
+        }
+        return limit;
+    }
+}
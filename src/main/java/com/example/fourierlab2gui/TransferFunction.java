@@ -0,0 +1,366 @@
+package com.example.fourierlab2gui;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public final class TransferFunction {
+    // Виды передаточных функций
+    public enum Type {
+        // Идеальный фильтр высоких частот: 0 внутри круга радиуса D0, 1 снаружи
+        IDEAL_HIGH_PASS,
+        // Идеальный фильтр низких частот: 1 внутри круга радиуса D0, 0 снаружи
+        IDEAL_LOW_PASS,
+        // Линейно нарастающий фильтр высоких частот (HighPassFilter)
+        RAMP_HIGH_PASS,
+        // Фильтр Гаусса низких частот
+        GAUSSIAN_LOW_PASS,
+        // Фильтр Баттерворта низких частот порядка n: 1 / (1 + (D / D0)^2n)
+        BUTTERWORTH_LOW_PASS,
+        // Фильтр Баттерворта высоких частот порядка n: 1 / (1 + (D0 / D)^2n)
+        BUTTERWORTH_HIGH_PASS
+    }
+
+    // Системное свойство с объемом памяти кэша передаточных функций в байтах; последняя добавленная функция
+    // хранится всегда, даже если одна превышает объем (маска больше 4096 x 4096 при объеме по умолчанию),
+    // и вытесняется при добавлении следующей, поэтому повторные запросы той же маски не пересчитывают ее
+    public static final String CACHE_BUDGET_PROPERTY = "fourierlab2gui.filter.cache.bytes";
+
+    // Передаточные функции в порядке последнего использования (для вытеснения LRU)
+    private static final LinkedHashMap<Key, TransferFunction> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    // Максимальный суммарный размер хранимых функций в байтах
+    private static long budget = Long.getLong(CACHE_BUDGET_PROPERTY, 64L * 1024 * 1024);
+    // Текущий суммарный размер хранимых функций в байтах
+    private static long bytes;
+    // Ключ последней добавленной функции (не вытесняется)
+    private static Key newest;
+    // Количество попаданий и промахов кэша
+    private static long hits;
+    private static long misses;
+
+    private final Type type;
+    private final int width;
+    private final int height;
+    // Значения передаточной функции в естественном порядке спектра FFTW (нулевая частота в (0, 0)), построчно
+    // (float: точности достаточно для маски, а памяти нужно вдвое меньше)
+    private final float[] weights;
+
+    private TransferFunction(Type type, int width, int height, float[] weights) {
+        this.type = type;
+        this.width = width;
+        this.height = height;
+        this.weights = weights;
+    }
+
+    // Получение передаточной функции из кэша (вычисляется один раз для каждого набора параметров:
+    // частоты среза D0 и, для фильтров Баттерворта, порядка)
+    public static TransferFunction get(Type type, int width, int height, double... params) {
+        return forTile(type, width, height, width, height, params);
+    }
+
+    // Передаточная функция для фрагмента width x height изображения imageWidth x imageHeight (из кэша):
+    // частоты фрагмента пересчитываются в частоты изображения, поэтому D0 задается, как для всего изображения
+    public static TransferFunction forTile(Type type, int width, int height, int imageWidth, int imageHeight,
+                                           double... params) {
+        Key key = new Key(type, width, height, imageWidth, imageHeight, params.clone());
+        synchronized (CACHE) {
+            TransferFunction function = CACHE.get(key);
+            if (function != null) {
+                hits++;
+                return function;
+            }
+            misses++;
+        }
+        // Вычисление выполняется вне блокировки, чтобы не задерживать другие потоки
+        TransferFunction function = create(type, width, height, imageWidth, imageHeight, key.params);
+        synchronized (CACHE) {
+            TransferFunction existing = CACHE.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            CACHE.put(key, function);
+            bytes += function.sizeInBytes();
+            newest = key;
+            evict();
+        }
+        return function;
+    }
+
+    // Установка максимального суммарного размера кэша в байтах
+    public static void setCacheBudget(long newBudget) {
+        if (newBudget < 0) {
+            throw new IllegalArgumentException("Invalid transfer function cache budget: " + newBudget);
+        }
+        synchronized (CACHE) {
+            budget = newBudget;
+            evict();
+        }
+    }
+
+    public static long getCacheBudget() {
+        synchronized (CACHE) {
+            return budget;
+        }
+    }
+
+    // Суммарный размер хранимых функций в байтах
+    public static long getCacheBytes() {
+        synchronized (CACHE) {
+            return bytes;
+        }
+    }
+
+    // Количество передаточных функций в кэше
+    public static int cacheSize() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    public static long getCacheHits() {
+        synchronized (CACHE) {
+            return hits;
+        }
+    }
+
+    public static long getCacheMisses() {
+        synchronized (CACHE) {
+            return misses;
+        }
+    }
+
+    // Очистка кэша передаточных функций и счетчиков
+    public static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+            newest = null;
+            bytes = 0;
+            hits = 0;
+            misses = 0;
+        }
+    }
+
+    // Вытеснение давно не использованных функций сверх объема памяти (кроме последней добавленной)
+    private static void evict() {
+        Iterator<Map.Entry<Key, TransferFunction>> iterator = CACHE.entrySet().iterator();
+        while (bytes > budget && iterator.hasNext()) {
+            Map.Entry<Key, TransferFunction> entry = iterator.next();
+            if (entry.getKey().equals(newest)) {
+                continue;
+            }
+            bytes -= entry.getValue().sizeInBytes();
+            iterator.remove();
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Значение передаточной функции в точке (x, y) центрированного спектра
+    public double get(int x, int y) {
+        return weights[FFTShift.unshiftIndex(y, height) * width + FFTShift.unshiftIndex(x, width)];
+    }
+
+    // Умножение вещественной плоскости спектра (естественный порядок) на передаточную функцию на месте
+    public void multiply(ImagePlane plane) {
+        checkSize(plane);
+        double[] data = plane.getData();
+        for (int y = 0; y < height; y++) {
+            int offset = y * plane.getStride();
+            int weightOffset = y * width;
+            for (int x = 0; x < width; x++) {
+                data[offset + x] *= weights[weightOffset + x];
+            }
+        }
+    }
+
+    // Умножение комплексного спектра (реальная и мнимая плоскости) на передаточную функцию на месте;
+    // возвращает сумму |F|^2 отфильтрованного спектра, накопленную в том же проходе
+    public double multiply(ImagePlane re, ImagePlane im) {
+        checkSize(re);
+        checkSize(im);
+        double[] dataRe = re.getData();
+        double[] dataIm = im.getData();
+        double energy = 0;
+        for (int y = 0; y < height; y++) {
+            int offsetRe = y * re.getStride();
+            int offsetIm = y * im.getStride();
+            int weightOffset = y * width;
+            for (int x = 0; x < width; x++) {
+                double weight = weights[weightOffset + x];
+                double a = dataRe[offsetRe + x] * weight;
+                double b = dataIm[offsetIm + x] * weight;
+                dataRe[offsetRe + x] = a;
+                dataIm[offsetIm + x] = b;
+                energy += a * a + b * b;
+            }
+        }
+        return energy;
+    }
+
+    // Умножение строки y хранимого спектра (пары re, im для первых columns столбцов) на месте;
+    // в режиме r2c хранятся только неотрицательные частоты по x, columns = width / 2 + 1
+    public void multiplyRow(int y, double[] row, int columns) {
+        int weightOffset = y * width;
+        for (int x = 0; x < columns; x++) {
+            double weight = weights[weightOffset + x];
+            row[2 * x] *= weight;
+            row[2 * x + 1] *= weight;
+        }
+    }
+
+    // Копия передаточной функции в виде центрированной плоскости (для отображения маски)
+    public ImagePlane toPlane() {
+        ImagePlane plane = new ImagePlane(width, height);
+        double[] data = plane.getData();
+        for (int i = 0; i < weights.length; i++) {
+            data[i] = weights[i];
+        }
+        return FFTShift.fftshift(plane);
+    }
+
+    // Объем памяти, занимаемый значениями функции
+    public long sizeInBytes() {
+        return (long) weights.length * Float.BYTES;
+    }
+
+    private void checkSize(ImagePlane plane) {
+        if (plane.getWidth() != width || plane.getHeight() != height) {
+            throw new IllegalArgumentException("Transfer function " + width + "x" + height
+                    + " does not match spectrum " + plane.getWidth() + "x" + plane.getHeight());
+        }
+    }
+
+    // Вычисление передаточной функции; расстояние считается от нулевой частоты, а значения
+    // сразу записываются в естественном порядке: индекс u соответствует частоте shiftIndex(u) - width / 2
+    // (для фрагмента - умноженной на imageWidth / width, чтобы частоты совпадали с частотами изображения)
+    private static TransferFunction create(Type type, int width, int height, int imageWidth, int imageHeight,
+                                           double[] params) {
+        boolean butterworth = type == Type.BUTTERWORTH_LOW_PASS || type == Type.BUTTERWORTH_HIGH_PASS;
+        if (params.length != (butterworth ? 2 : 1)) {
+            throw new IllegalArgumentException(type + (butterworth ? " expects D0 and order" : " expects D0")
+                    + ", got " + params.length + " parameters");
+        }
+        double D0 = params[0];
+        double order = butterworth ? params[1] : 0;
+        float[] weights = new float[checkedSize(width, height)];
+        // Частота каждого столбца и каждой строки естественного порядка
+        double[] frequenciesX = frequencies(width, (double) imageWidth / width);
+        double[] frequenciesY = frequencies(height, (double) imageHeight / height);
+
+        if (type == Type.GAUSSIAN_LOW_PASS) {
+            // Гауссова функция разделима: exp(-(dx^2 + dy^2) / 2s^2) = exp(-dx^2 / 2s^2) * exp(-dy^2 / 2s^2),
+            // поэтому экспоненты вычисляются один раз для каждого столбца и каждой строки
+            double denominator = 2 * D0 * D0;
+            double[] columnFactors = new double[width];
+            for (int x = 0; x < width; x++) {
+                double dx = frequenciesX[x];
+                columnFactors[x] = Math.exp(-dx * dx / denominator);
+            }
+            for (int y = 0; y < height; y++) {
+                double dy = frequenciesY[y];
+                double rowFactor = Math.exp(-dy * dy / denominator);
+                for (int x = 0; x < width; x++) {
+                    weights[y * width + x] = (float) (rowFactor * columnFactors[x]);
+                }
+            }
+            return new TransferFunction(type, width, height, weights);
+        }
+
+        double maxDistance = Math.sqrt((double) imageWidth * imageWidth + (double) imageHeight * imageHeight);
+        for (int y = 0; y < height; y++) {
+            double dy = frequenciesY[y];
+            for (int x = 0; x < width; x++) {
+                double dx = frequenciesX[x];
+                // Расстояние от текущего пикселя до центра спектра
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                double weight;
+                switch (type) {
+                    case IDEAL_HIGH_PASS:
+                        weight = distance < D0 ? 0 : 1;
+                        break;
+                    case IDEAL_LOW_PASS:
+                        weight = distance > D0 ? 0 : 1;
+                        break;
+                    case BUTTERWORTH_LOW_PASS:
+                        weight = 1 / (1 + Math.pow(distance / D0, 2 * order));
+                        break;
+                    case BUTTERWORTH_HIGH_PASS:
+                        weight = distance == 0 ? 0 : 1 / (1 + Math.pow(D0 / distance, 2 * order));
+                        break;
+                    default:
+                        weight = distance < D0 ? 0 : (distance - D0) / (maxDistance - D0);
+                        break;
+                }
+                weights[y * width + x] = (float) weight;
+            }
+        }
+        return new TransferFunction(type, width, height, weights);
+    }
+
+    // Смещение от центра центрированного спектра для каждого индекса естественного порядка (умноженное на scale)
+    private static double[] frequencies(int n, double scale) {
+        double[] frequencies = new double[n];
+        for (int k = 0; k < n; k++) {
+            frequencies[k] = (FFTShift.shiftIndex(k, n) - n / 2) * scale;
+        }
+        return frequencies;
+    }
+
+    private static int checkedSize(int width, int height) {
+        long size = (long) width * height;
+        if (width < 1 || height < 1 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid transfer function size: " + width + "x" + height);
+        }
+        return (int) size;
+    }
+
+    // Ключ кэша: вид, размеры, размеры изображения (для фрагментов) и параметры передаточной функции
+    private static final class Key {
+        private final Type type;
+        private final int width;
+        private final int height;
+        private final int imageWidth;
+        private final int imageHeight;
+        private final double[] params;
+
+        private Key(Type type, int width, int height, int imageWidth, int imageHeight, double[] params) {
+            this.type = type;
+            this.width = width;
+            this.height = height;
+            this.imageWidth = imageWidth;
+            this.imageHeight = imageHeight;
+            this.params = params;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return type == key.type && width == key.width && height == key.height
+                    && imageWidth == key.imageWidth && imageHeight == key.imageHeight
+                    && Arrays.equals(params, key.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, width, height, imageWidth, imageHeight) * 31 + Arrays.hashCode(params);
+        }
+    }
+}
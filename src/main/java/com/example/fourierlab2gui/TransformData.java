@@ -2,23 +2,33 @@ package com.example.fourierlab2gui;
 
 public class TransformData {
     // Объявление переменных для хранения данных преобразования, минимального и максимального значений
-    private double[][] data;
+    private ImagePlane data;
     private double min;
     private double max;
 
     // Конструктор класса TransformData
-    public TransformData(double[][] data, double min, double max) {
+    public TransformData(ImagePlane data, double min, double max) {
         // Инициализация переменных данными, переданными в конструктор
         this.data = data;
         this.min = min;
         this.max = max;
     }
 
+    // Конструктор для данных в виде массива строк [height][width]
+    public TransformData(double[][] data, double min, double max) {
+        this(ImagePlane.fromRows(data), min, max);
+    }
+
     // Метод для получения данных преобразования
-    public double[][] getData() {
+    public ImagePlane getPlane() {
         return data;
     }
 
+    // Адаптер: данные преобразования в виде массива строк [height][width]
+    public double[][] getData() {
+        return data.toRows();
+    }
+
     // Метод для получения минимального значения
     public double getMin() {
         return min;
@@ -29,4 +39,3 @@ public class TransformData {
         return max;
     }
 }
-
@@ -0,0 +1,29 @@
+package com.example.fourierlab2gui;
+
+final class VectorKernels {
+    // Ядра SpectrumKernels над чередующимися парами re, im на Vector API (jdk.incubator.vector).
+    // Это версия для Java 11, где Vector API нет: она всегда недоступна, и SpectrumKernels выполняет
+    // скалярные циклы. Реализация для Java 17+ находится в src/main/java17 и собирается
+    // в META-INF/versions/17 многоверсионного jar
+
+    private VectorKernels() {
+    }
+
+    // Можно ли использовать векторные ядра в этой JVM
+    static boolean isAvailable() {
+        return false;
+    }
+
+    static void magnitude(double[] interleaved, int offset, double[] destination, int destinationOffset,
+                          int count) {
+        throw new UnsupportedOperationException("Vector API requires Java 17+");
+    }
+
+    static void power(double[] interleaved, int offset, double[] destination, int destinationOffset, int count) {
+        throw new UnsupportedOperationException("Vector API requires Java 17+");
+    }
+
+    static double energy(double[] interleaved, int offset, int count) {
+        throw new UnsupportedOperationException("Vector API requires Java 17+");
+    }
+}
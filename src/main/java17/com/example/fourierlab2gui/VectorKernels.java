@@ -0,0 +1,114 @@
+package com.example.fourierlab2gui;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Optional;
+
+final class VectorKernels {
+    // Ядра SpectrumKernels над чередующимися парами re, im на Vector API (Java 17+, jdk.incubator.vector).
+    // За итерацию читаются два вектора подряд (Lanes.COUNT пар) и возводятся в квадрат; к каждому
+    // прибавляется он же с переставленными соседними элементами, так что в четных элементах оказываются
+    // суммы re^2 + im^2, которые перестановкой собираются в младшую половину вектора и объединяются
+    // с суммами второго вектора. Перестановки с двумя векторами-источниками (rearrange(shuffle, v)) в JDK 17
+    // в несколько раз медленнее скалярного цикла, а выборка по индексам (gather) не быстрее него, поэтому
+    // используются только перестановки внутри вектора и blend. Операции те же, что в скалярном цикле
+    // (re * re + im * im, sqrt), поэтому magnitude и power дают те же значения бит в бит; energy суммирует
+    // в другом порядке и может отличаться в последних битах. На x86 без AVX2 (векторы 128 бит) перестановки
+    // не компилируются в инструкции и выполняются на порядки медленнее, поэтому magnitude и power
+    // векторизуются только при длине вектора от 4 элементов, а иначе весь диапазон проходит скалярный цикл. Модуль jdk.incubator.vector не разрешается по умолчанию, поэтому ядра доступны
+    // только при запуске с --add-modules jdk.incubator.vector
+
+    private VectorKernels() {
+    }
+
+    // Проверка наличия модуля Vector API; модулю приложения (если jar на пути модулей) добавляется
+    // чтение jdk.incubator.vector, чтобы не объявлять зависимость от инкубаторного модуля в module-info
+    static boolean isAvailable() {
+        Optional<Module> vector = ModuleLayer.boot().findModule("jdk.incubator.vector");
+        if (vector.isEmpty()) {
+            return false;
+        }
+        VectorKernels.class.getModule().addReads(vector.get());
+        return Lanes.COUNT > 1;
+    }
+
+    static void magnitude(double[] interleaved, int offset, double[] destination, int destinationOffset,
+                          int count) {
+        int base = 2 * offset;
+        int bound = Lanes.PERMUTE ? Lanes.SPECIES.loopBound(count) : 0;
+        int k = 0;
+        for (; k < bound; k += Lanes.COUNT) {
+            squares(interleaved, base + 2 * k).sqrt().intoArray(destination, destinationOffset + k);
+        }
+        for (; k < count; k++) {
+            double re = interleaved[base + 2 * k];
+            double im = interleaved[base + 2 * k + 1];
+            destination[destinationOffset + k] = Math.sqrt(re * re + im * im);
+        }
+    }
+
+    static void power(double[] interleaved, int offset, double[] destination, int destinationOffset, int count) {
+        int base = 2 * offset;
+        int bound = Lanes.PERMUTE ? Lanes.SPECIES.loopBound(count) : 0;
+        int k = 0;
+        for (; k < bound; k += Lanes.COUNT) {
+            squares(interleaved, base + 2 * k).intoArray(destination, destinationOffset + k);
+        }
+        for (; k < count; k++) {
+            double re = interleaved[base + 2 * k];
+            double im = interleaved[base + 2 * k + 1];
+            destination[destinationOffset + k] = re * re + im * im;
+        }
+    }
+
+    // Пары в сумме не разделяются, поэтому квадраты 2 * count значений подряд накапливаются
+    // в два векторных аккумулятора без перестановок
+    static double energy(double[] interleaved, int offset, int count) {
+        int base = 2 * offset;
+        int bound = Lanes.SPECIES.loopBound(count);
+        DoubleVector first = DoubleVector.zero(Lanes.SPECIES);
+        DoubleVector second = DoubleVector.zero(Lanes.SPECIES);
+        int k = 0;
+        for (; k < bound; k += Lanes.COUNT) {
+            DoubleVector a = DoubleVector.fromArray(Lanes.SPECIES, interleaved, base + 2 * k);
+            DoubleVector b = DoubleVector.fromArray(Lanes.SPECIES, interleaved, base + 2 * k + Lanes.COUNT);
+            first = first.add(a.mul(a));
+            second = second.add(b.mul(b));
+        }
+        double energy = first.add(second).reduceLanes(VectorOperators.ADD);
+        for (; k < count; k++) {
+            double re = interleaved[base + 2 * k];
+            double im = interleaved[base + 2 * k + 1];
+            energy += re * re + im * im;
+        }
+        return energy;
+    }
+
+    // re^2 + im^2 для Lanes.COUNT пар, начиная с элемента index
+    private static DoubleVector squares(double[] interleaved, int index) {
+        DoubleVector a = DoubleVector.fromArray(Lanes.SPECIES, interleaved, index);
+        DoubleVector b = DoubleVector.fromArray(Lanes.SPECIES, interleaved, index + Lanes.COUNT);
+        a = a.mul(a);
+        b = b.mul(b);
+        a = a.add(a.rearrange(Lanes.SWAP)).rearrange(Lanes.PACK);
+        b = b.add(b.rearrange(Lanes.SWAP)).rearrange(Lanes.PACK);
+        return a.blend(b, Lanes.UPPER);
+    }
+
+    // Параметры векторов в отдельном классе: он загружается только после проверки модуля в isAvailable
+    private static final class Lanes {
+        private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+        private static final int COUNT = SPECIES.length();
+        // Выполняются ли перестановки векторными инструкциями (AVX2 и шире)
+        private static final boolean PERMUTE = COUNT >= 4;
+        // Обмен соседних элементов (re и im каждой пары)
+        private static final VectorShuffle<Double> SWAP = VectorShuffle.fromOp(SPECIES, i -> i ^ 1);
+        // Четные элементы подряд; в старшей половине они повторяются, и blend берет ее из второго вектора
+        private static final VectorShuffle<Double> PACK = VectorShuffle.fromOp(SPECIES, i -> 2 * i % COUNT);
+        private static final VectorMask<Double> UPPER = VectorMask.fromLong(SPECIES, -1L << (COUNT / 2));
+    }
+}
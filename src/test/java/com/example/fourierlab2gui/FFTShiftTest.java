@@ -0,0 +1,92 @@
+package com.example.fourierlab2gui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FFTShiftTest {
+    // Нечетная ширина с четной высотой, нечетные обе стороны, четные обе стороны и вырожденные размеры
+    private static final int[][] SIZES = {{5, 4}, {4, 5}, {5, 7}, {1, 3}, {6, 8}, {1, 1}};
+
+    // Для нечетных размеров fftshift и ifftshift сдвигают на разное число элементов,
+    // и только их композиция возвращает исходную плоскость
+    @Test
+    void ifftshiftUndoesFftshift() {
+        for (int[] size : SIZES) {
+            ImagePlane plane = numberedPlane(size[0], size[1]);
+            ImagePlane shifted = FFTShift.ifftshift(FFTShift.fftshift(plane.copy()));
+            assertPlanesEqual(plane, shifted, size);
+        }
+    }
+
+    @Test
+    void fftshiftUndoesIfftshift() {
+        for (int[] size : SIZES) {
+            ImagePlane plane = numberedPlane(size[0], size[1]);
+            ImagePlane shifted = FFTShift.fftshift(FFTShift.ifftshift(plane.copy()));
+            assertPlanesEqual(plane, shifted, size);
+        }
+    }
+
+    // Спектр постоянного изображения отличен от нуля только в нулевой частоте, которая после fftshift
+    // оказывается в (width / 2, height / 2)
+    @Test
+    void dcMovesToCenter() {
+        FourierTransform fourierTransform = new FourierTransform();
+        for (int[] size : SIZES) {
+            int width = size[0];
+            int height = size[1];
+            ImagePlane image = new ImagePlane(width, height);
+            image.fill(1);
+            ImagePlane spectrum = fourierTransform.twoDimensionalFourierTransform(image,
+                    new ImagePlane(width, height))[0];
+            FFTShift.fftshift(spectrum);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    double expected = x == width / 2 && y == height / 2 ? width * height : 0;
+                    assertEquals(expected, spectrum.get(x, y), 1e-9,
+                            width + "x" + height + " (" + x + ", " + y + ")");
+                }
+            }
+        }
+    }
+
+    // Индексы сдвига согласованы со сдвигом плоскости и обратны друг другу
+    @Test
+    void shiftIndexMatchesPlaneShift() {
+        for (int[] size : SIZES) {
+            int width = size[0];
+            int height = size[1];
+            ImagePlane plane = numberedPlane(width, height);
+            ImagePlane shifted = FFTShift.fftshift(plane.copy());
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int sx = FFTShift.shiftIndex(x, width);
+                    int sy = FFTShift.shiftIndex(y, height);
+                    assertEquals(plane.get(x, y), shifted.get(sx, sy), width + "x" + height);
+                    assertEquals(x, FFTShift.unshiftIndex(sx, width));
+                    assertEquals(y, FFTShift.unshiftIndex(sy, height));
+                }
+            }
+        }
+    }
+
+    // Плоскость с различными значениями y * width + x
+    private static ImagePlane numberedPlane(int width, int height) {
+        ImagePlane plane = new ImagePlane(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                plane.set(x, y, y * width + x);
+            }
+        }
+        return plane;
+    }
+
+    private static void assertPlanesEqual(ImagePlane expected, ImagePlane actual, int[] size) {
+        for (int y = 0; y < size[1]; y++) {
+            for (int x = 0; x < size[0]; x++) {
+                assertEquals(expected.get(x, y), actual.get(x, y), size[0] + "x" + size[1] + " (" + x + ", " + y + ")");
+            }
+        }
+    }
+}
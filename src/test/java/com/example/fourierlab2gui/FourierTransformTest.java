@@ -0,0 +1,61 @@
+package com.example.fourierlab2gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FourierTransformTest {
+    private final FourierTransform fourierTransform = new FourierTransform();
+
+    // Прямое и обратное преобразования (с нормализацией 1 / (w * h)) возвращают исходное изображение;
+    // размеры с радиксами 2, 3, 5 и простыми множителями (Блюстейн), ширина больше и меньше высоты
+    @Test
+    void roundTripRestoresImage() {
+        int[][] sizes = {{1, 1}, {8, 8}, {12, 7}, {45, 64}, {97, 30}};
+        for (int[] size : sizes) {
+            int width = size[0];
+            int height = size[1];
+            ImagePlane re = randomPlane(width, height);
+            ImagePlane im = new ImagePlane(width, height);
+            ImagePlane[] spectrum = fourierTransform.twoDimensionalFourierTransform(re, im);
+            ImagePlane[] image = fourierTransform.inverseTwoDimensionalFourierTransform(spectrum[0], spectrum[1]);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    String where = width + "x" + height + " (" + x + ", " + y + ")";
+                    assertEquals(re.get(x, y), image[0].get(x, y), 1e-9, "re " + where);
+                    assertEquals(0, image[1].get(x, y), 1e-9, "im " + where);
+                }
+            }
+        }
+    }
+
+    // Постоянная составляющая прямого преобразования - сумма яркостей (преобразование без нормализации)
+    @Test
+    void forwardDcIsSumOfPixels() {
+        int width = 12;
+        int height = 7;
+        ImagePlane re = randomPlane(width, height);
+        double sum = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                sum += re.get(x, y);
+            }
+        }
+        ImagePlane[] spectrum = fourierTransform.twoDimensionalFourierTransform(re, new ImagePlane(width, height));
+        assertEquals(sum, spectrum[0].get(0, 0), 1e-9 * sum);
+        assertEquals(0, spectrum[1].get(0, 0), 1e-9 * sum);
+    }
+
+    private static ImagePlane randomPlane(int width, int height) {
+        Random random = new Random(width * 31L + height);
+        ImagePlane plane = new ImagePlane(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                plane.set(x, y, random.nextInt(256));
+            }
+        }
+        return plane;
+    }
+}
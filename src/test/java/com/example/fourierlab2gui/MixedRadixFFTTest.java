@@ -0,0 +1,94 @@
+package com.example.fourierlab2gui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MixedRadixFFTTest {
+    // Длины: тривиальные, радиксы 2, 3, 5, смешанная 12 = 4 * 3, простая 97 (алгоритм Блюстейна)
+    // и 1000 = 4 * 2 * 5 * 5 * 5
+    private static final int[] LENGTHS = {1, 2, 3, 5, 12, 97, 1000};
+
+    @Test
+    void forwardMatchesNaiveDft() {
+        for (int n : LENGTHS) {
+            double[][] input = randomSignal(n);
+            double[] re = input[0].clone();
+            double[] im = input[1].clone();
+            MixedRadixFFT.forLength(n).forward(re, im);
+            double[][] expected = naiveDft(input[0], input[1], -1);
+            assertClose(expected[0], re, n, "forward re");
+            assertClose(expected[1], im, n, "forward im");
+        }
+    }
+
+    @Test
+    void inverseMatchesNaiveDft() {
+        for (int n : LENGTHS) {
+            double[][] input = randomSignal(n);
+            double[] re = input[0].clone();
+            double[] im = input[1].clone();
+            MixedRadixFFT.forLength(n).inverse(re, im);
+            double[][] expected = naiveDft(input[0], input[1], 1);
+            assertClose(expected[0], re, n, "inverse re");
+            assertClose(expected[1], im, n, "inverse im");
+        }
+    }
+
+    // Прямое и обратное преобразования без нормализации: результат в n раз больше исходного сигнала
+    @Test
+    void inverseUndoesForward() {
+        for (int n : LENGTHS) {
+            double[][] input = randomSignal(n);
+            double[] re = input[0].clone();
+            double[] im = input[1].clone();
+            MixedRadixFFT fft = MixedRadixFFT.forLength(n);
+            fft.forward(re, im);
+            fft.inverse(re, im);
+            for (int k = 0; k < n; k++) {
+                re[k] /= n;
+                im[k] /= n;
+            }
+            assertClose(input[0], re, n, "round trip re");
+            assertClose(input[1], im, n, "round trip im");
+        }
+    }
+
+    // Дискретное преобразование Фурье по определению: X[k] = sum x[j] * exp(sign * 2 * pi * i * j * k / n)
+    private static double[][] naiveDft(double[] re, double[] im, int sign) {
+        int n = re.length;
+        double[] outRe = new double[n];
+        double[] outIm = new double[n];
+        for (int k = 0; k < n; k++) {
+            for (int j = 0; j < n; j++) {
+                // Остаток j * k по модулю n сохраняет точность угла для больших n
+                double angle = sign * 2 * Math.PI * ((long) j * k % n) / n;
+                double cos = Math.cos(angle);
+                double sin = Math.sin(angle);
+                outRe[k] += re[j] * cos - im[j] * sin;
+                outIm[k] += re[j] * sin + im[j] * cos;
+            }
+        }
+        return new double[][]{outRe, outIm};
+    }
+
+    private static double[][] randomSignal(int n) {
+        Random random = new Random(n);
+        double[] re = new double[n];
+        double[] im = new double[n];
+        for (int k = 0; k < n; k++) {
+            re[k] = random.nextDouble() * 2 - 1;
+            im[k] = random.nextDouble() * 2 - 1;
+        }
+        return new double[][]{re, im};
+    }
+
+    // Погрешность FFT растет с длиной, поэтому допуск пропорционален n
+    private static void assertClose(double[] expected, double[] actual, int n, String what) {
+        for (int k = 0; k < n; k++) {
+            assertEquals(expected[k], actual[k], 1e-10 * n, what + " n=" + n + " k=" + k);
+        }
+    }
+}